@@ -9,6 +9,8 @@ import ru.yandex.practicum.taskmanager.service.Managers;
 import ru.yandex.practicum.taskmanager.service.TaskManager;
 import ru.yandex.practicum.taskmanager.tasks.Epictask;
 import ru.yandex.practicum.taskmanager.tasks.Selftask;
+import ru.yandex.practicum.taskmanager.tasks.Status;
+import ru.yandex.practicum.taskmanager.tasks.Subordination;
 import ru.yandex.practicum.taskmanager.tasks.Subtask;
 import ru.yandex.practicum.taskmanager.tasks.Task;
 import ru.yandex.practicum.taskmanager.utils.DurationAdapter;
@@ -20,11 +22,16 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
+import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
@@ -62,6 +69,7 @@ public class HttpTaskServer {
 
     public void stop() {
         server.stop(1);
+        taskManager.close();
         String message = String.format("Server stopped on %s:%d", host, port);
         System.out.println(message);
     }
@@ -87,6 +95,92 @@ public class HttpTaskServer {
         }
     }
 
+    private Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (isNull(rawQuery)) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int index = pair.indexOf('=');
+            if (index > 0) {
+                query.put(URLDecoder.decode(pair.substring(0, index), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(index + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+
+    // Параметр track: при track=false чтение задачи по id не записывается в историю
+    private Boolean parseTrack(HttpExchange exchange) {
+        String text = parseQuery(exchange.getRequestURI().getRawQuery()).get("track");
+        if (isNull(text) || text.equalsIgnoreCase("true")) {
+            return true;
+        }
+        return text.equalsIgnoreCase("false") ? Boolean.FALSE : null;
+    }
+
+    private LocalDateTime parseDateTime(String text) {
+        try {
+            return isNull(text) ? null : LocalDateTime.parse(text, LocalDateTimeAdapter.FORMATTER);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private Duration parseDuration(String text) {
+        try {
+            return isNull(text) ? null : Duration.parse(text);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    // Слишком большая длительность выводит время окончания за пределы LocalDateTime
+    private LocalDateTime findFreeSlot(LocalDateTime from, Duration duration) {
+        try {
+            return taskManager.findFreeSlot(from, duration);
+        } catch (DateTimeException | ArithmeticException e) {
+            return null;
+        }
+    }
+
+    private Status parseStatus(String text) {
+        try {
+            return isNull(text) ? null : Status.valueOf(text.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Список задач типа subordination, а если задан параметр status - только задачи в этом статусе
+    private void sendAll(HttpExchange exchange, Subordination subordination, Supplier<List<Task>> all)
+            throws IOException {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        List<Task> taskList;
+        if (query.containsKey("status")) {
+            Status status = parseStatus(query.get("status"));
+            if (isNull(status)) {
+                exchange.sendResponseHeaders(405, 0);
+                return;
+            }
+            taskList = taskManager.getAllByStatus(subordination, status);
+        } else {
+            taskList = all.get();
+        }
+        List<TaskDTO> dtoList = taskList.stream().map(TaskDTO::get).toList();
+        sendText(exchange, gson.toJson(dtoList), 200);
+    }
+
+    private void sendCount(HttpExchange exchange, Subordination subordination) throws IOException {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        Status status = parseStatus(query.get("status"));
+        if (isNull(status)) {
+            exchange.sendResponseHeaders(405, 0);
+            return;
+        }
+        sendText(exchange, gson.toJson(taskManager.getCountByStatus(subordination, status)), 200);
+    }
+
     Selftask parseSelftask(InputStream inputStream) {
         InputStreamReader reader = new InputStreamReader(inputStream);
         try {
@@ -105,6 +199,7 @@ public class HttpTaskServer {
         server.createContext("/tasks", this::selfHandler);
         server.createContext("/history", this::historyHandler);
         server.createContext("/prioritized", this::prioritizedHandler);
+        server.createContext("/search", this::searchHandler);
 
         server.createContext("/subtasks", this::subHandler);
         server.createContext("/epics", this::epicHandler);
@@ -147,7 +242,58 @@ public class HttpTaskServer {
             String method = exchange.getRequestMethod();
             String path = exchange.getRequestURI().getPath();
             if (method.equals("GET") && path.matches("^/prioritized/?$")) {
-                List<Task> taskList = taskManager.getPrioritizedTasks();
+                Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+                List<Task> taskList;
+                if (query.containsKey("from") || query.containsKey("to")) {
+                    // отсутствующая граница диапазона считается открытой
+                    LocalDateTime from = query.containsKey("from")
+                            ? parseDateTime(query.get("from"))
+                            : LocalDateTime.MIN;
+                    LocalDateTime to = query.containsKey("to")
+                            ? parseDateTime(query.get("to"))
+                            : LocalDateTime.MAX;
+                    if (isNull(from) || isNull(to)) {
+                        exchange.sendResponseHeaders(405, 0);
+                        return;
+                    }
+                    taskList = taskManager.getPrioritizedTasks(from, to);
+                } else {
+                    taskList = taskManager.getPrioritizedTasks();
+                }
+                List<TaskDTO> dtoList = taskList.stream().map(TaskDTO::get).toList();
+                sendText(exchange, gson.toJson(dtoList), 200);
+            } else if (method.equals("GET") && path.matches("^/prioritized/free/?$")) {
+                Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+                LocalDateTime from = parseDateTime(query.get("from"));
+                Duration duration = parseDuration(query.get("duration"));
+                LocalDateTime slot = (isNull(from) || isNull(duration))
+                        ? null
+                        : findFreeSlot(from, duration);
+                if (nonNull(slot)) {
+                    sendText(exchange, gson.toJson(slot), 200);
+                } else {
+                    exchange.sendResponseHeaders(405, 0);
+                }
+            } else {
+                exchange.sendResponseHeaders(405, 0);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Поиск по словам: GET /search?q=слова&limit=N, без limit возвращаются все найденные задачи
+    private void searchHandler(HttpExchange exchange) {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            Integer limit = query.containsKey("limit")
+                    ? parseId(query.get("limit"))
+                    : Integer.valueOf(Integer.MAX_VALUE);
+            if (method.equals("GET") && path.matches("^/search/?$") && query.containsKey("q")
+                    && nonNull(limit) && (limit > 0)) {
+                List<Task> taskList = taskManager.search(query.get("q"), limit);
                 List<TaskDTO> dtoList = taskList.stream().map(TaskDTO::get).toList();
                 sendText(exchange, gson.toJson(dtoList), 200);
             } else {
@@ -158,12 +304,19 @@ public class HttpTaskServer {
         }
     }
 
+    // GET /history?limit=N возвращает только N последних просмотренных задач
     private void historyHandler(HttpExchange exchange) {
         try (exchange) {
             String method = exchange.getRequestMethod();
             String path = exchange.getRequestURI().getPath();
-            if (method.equals("GET") && path.matches("^/history/?$")) {
-                List<Task> taskList = taskManager.getHistory();
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            Integer limit = query.containsKey("limit")
+                    ? parseId(query.get("limit"))
+                    : Integer.valueOf(Integer.MAX_VALUE);
+            if (method.equals("GET") && path.matches("^/history/?$") && nonNull(limit) && (limit > 0)) {
+                List<Task> taskList = query.containsKey("limit")
+                        ? taskManager.getHistory(limit)
+                        : taskManager.getHistory();
                 List<TaskDTO> dtoList = taskList.stream().map(TaskDTO::get).toList();
                 sendText(exchange, gson.toJson(dtoList), 200);
             } else {
@@ -189,15 +342,18 @@ public class HttpTaskServer {
             switch (method) {
                 case "GET" -> {
                     if (path.matches("^/tasks/?$")) {
-                        List<Task> taskList = taskManager.getAllSelftasks();
-                        List<TaskDTO> dtoList = taskList.stream().map(TaskDTO::get).toList();
-                        sendText(exchange, gson.toJson(dtoList), 200);
+                        sendAll(exchange, Subordination.SELF, taskManager::getAllSelftasks);
+                        return;
+                    }
+                    if (path.matches("^/tasks/count/?$")) {
+                        sendCount(exchange, Subordination.SELF);
                         return;
                     }
                     if (path.matches("^/tasks/\\d+$")) {
                         Integer id = parseId(path.substring("/tasks/".length()));
-                        if (nonNull(id)) {
-                            Selftask selftask = taskManager.getSelftask(id);
+                        Boolean track = parseTrack(exchange);
+                        if (nonNull(id) && nonNull(track)) {
+                            Selftask selftask = taskManager.getSelftask(id, track);
                             if (nonNull(selftask)) {
                                 sendText(exchange, gson.toJson(TaskDTO.get(selftask)), 200);
                             } else {
@@ -259,15 +415,18 @@ public class HttpTaskServer {
             switch (method) {
                 case "GET" -> {
                     if (path.matches("^/epics/?$")) {
-                        List<Task> taskList = taskManager.getAllEpictasks();
-                        List<TaskDTO> dtoList = taskList.stream().map(TaskDTO::get).toList();
-                        sendText(exchange, gson.toJson(dtoList), 200);
+                        sendAll(exchange, Subordination.EPIC, taskManager::getAllEpictasks);
+                        return;
+                    }
+                    if (path.matches("^/epics/count/?$")) {
+                        sendCount(exchange, Subordination.EPIC);
                         return;
                     }
                     if (path.matches("^/epics/\\d+$")) {
                         Integer id = parseId(path.substring("/epics/".length()));
-                        if (nonNull(id)) {
-                            Epictask epictask = taskManager.getEpic(id);
+                        Boolean track = parseTrack(exchange);
+                        if (nonNull(id) && nonNull(track)) {
+                            Epictask epictask = taskManager.getEpic(id, track);
                             if (nonNull(epictask)) {
                                 sendText(exchange, gson.toJson(TaskDTO.get(epictask)), 200);
                             } else {
@@ -329,15 +488,18 @@ public class HttpTaskServer {
             switch (method) {
                 case "GET" -> {
                     if (path.matches("^/subtasks/?$")) {
-                        List<Task> taskList = taskManager.getAllSubtasks();
-                        List<TaskDTO> dtoList = taskList.stream().map(TaskDTO::get).toList();
-                        sendText(exchange, gson.toJson(dtoList), 200);
+                        sendAll(exchange, Subordination.SUBTASK, taskManager::getAllSubtasks);
+                        return;
+                    }
+                    if (path.matches("^/subtasks/count/?$")) {
+                        sendCount(exchange, Subordination.SUBTASK);
                         return;
                     }
                     if (path.matches("^/subtasks/\\d+$")) {
                         Integer id = parseId(path.substring("/subtasks/".length()));
-                        if (nonNull(id)) {
-                            Subtask subtask = taskManager.getSubtask(id);
+                        Boolean track = parseTrack(exchange);
+                        if (nonNull(id) && nonNull(track)) {
+                            Subtask subtask = taskManager.getSubtask(id, track);
                             if (nonNull(subtask)) {
                                 sendText(exchange, gson.toJson(TaskDTO.get(subtask)), 200);
                             } else {
@@ -0,0 +1,53 @@
+package ru.yandex.practicum.taskmanager.repository;
+
+import java.util.Collection;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class InMemoryConcurrentMap<K, V> implements Repository<K, V> {
+    private final ConcurrentHashMap<K, V> base;
+
+    public InMemoryConcurrentMap() {
+        this.base = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void put(K key, V value) {
+        base.put(key, value);
+    }
+
+    @Override
+    public V get(K key) {
+        return (key == null) ? null : base.get(key);
+    }
+
+    @Override
+    public V delete(K key) {
+        return (key == null) ? null : base.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        base.clear();
+    }
+
+    @Override
+    public Collection<V> values() {
+        return base.values();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return base.isEmpty();
+    }
+
+    @Override
+    public SortedMap<K, V> headMap(K key) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public SortedMap<K, V> tailMap(K key, boolean param) {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,205 @@
+package ru.yandex.practicum.taskmanager.repository;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SortedMap;
+
+// Репозиторий с ключами int на открытой адресации с линейным пробированием.
+// Ключи и значения лежат в двух массивах, поэтому на запись не создаются ни узлы, ни упакованные ключи.
+// Ячейка выбирается по самому ключу: id задач выдаются подряд и ложатся в таблицу без коллизий,
+// а значения, как и в HashMap, перебираются в порядке возрастания небольших id.
+// При удалении следующие элементы цепочки сдвигаются назад, поэтому удаленных ячеек-меток в таблице нет.
+// Значения null не хранятся: put(key, null) удаляет ключ
+public class InMemoryIntMap<V> implements Repository<Integer, V> {
+    private static final int DEFAULT_CAPACITY = 16;
+    private int[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    public InMemoryIntMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public InMemoryIntMap(int expectedSize) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < 2 * expectedSize) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    public void put(int key, V value) {
+        if (value == null) {
+            delete(key);
+            return;
+        }
+        int i = key & mask;
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+        if (2 * size > keys.length) {
+            resize();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int i = key & mask;
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                return (V) values[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V delete(int key) {
+        int i = key & mask;
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                V value = (V) values[i];
+                values[i] = null;
+                size--;
+                shiftBack(i);
+                return value;
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    // Элемент цепочки переносится в освободившуюся ячейку, если она лежит между его исходной ячейкой и текущей
+    private void shiftBack(int hole) {
+        int i = hole;
+        while (true) {
+            i = (i + 1) & mask;
+            if (values[i] == null) {
+                return;
+            }
+            int home = keys[i] & mask;
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                values[i] = null;
+                hole = i;
+            }
+        }
+    }
+
+    private void resize() {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(oldKeys.length << 1);
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldValues[j] != null) {
+                int i = oldKeys[j] & mask;
+                while (values[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void put(Integer key, V value) {
+        put(key.intValue(), value);
+    }
+
+    @Override
+    public V get(Integer key) {
+        return (key == null) ? null : get(key.intValue());
+    }
+
+    @Override
+    public V delete(Integer key) {
+        return (key == null) ? null : delete(key.intValue());
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    // Представление значений без копирования, перебор идет по ячейкам таблицы
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new Iterator<>() {
+                    private int next = advance(0);
+
+                    private int advance(int from) {
+                        int i = from;
+                        while ((i < values.length) && (values[i] == null)) {
+                            i++;
+                        }
+                        return i;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < values.length;
+                    }
+
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public V next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        V value = (V) values[next];
+                        next = advance(next + 1);
+                        return value;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public SortedMap<Integer, V> headMap(Integer key) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public SortedMap<Integer, V> tailMap(Integer key, boolean param) {
+        throw new UnsupportedOperationException();
+    }
+}
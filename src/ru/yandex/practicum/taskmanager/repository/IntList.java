@@ -0,0 +1,207 @@
+package ru.yandex.practicum.taskmanager.repository;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+// Список неповторяющихся int без упаковки, сохраняющий порядок добавления.
+// Значения лежат в ячейках массива, связанных в двусвязный список, а ячейку по значению находит
+// индекс на открытой адресации. Поэтому добавление, удаление и проверка наличия выполняются за O(1).
+// Освободившиеся ячейки используются повторно
+public class IntList {
+    private static final int NONE = -1;
+    private static final int DEFAULT_CAPACITY = 4;
+    private int[] items;
+    private int[] next;
+    private int[] prev;
+    private int head;
+    private int tail;
+    private int free;
+    private int used;
+    private int size;
+    private int[] indexKeys;
+    private int[] indexSlots;
+    private int indexMask;
+
+    public IntList() {
+        items = new int[DEFAULT_CAPACITY];
+        next = new int[DEFAULT_CAPACITY];
+        prev = new int[DEFAULT_CAPACITY];
+        allocateIndex(2 * DEFAULT_CAPACITY);
+        head = NONE;
+        tail = NONE;
+        free = NONE;
+    }
+
+    public boolean add(int value) {
+        if (find(value) != NONE) {
+            return false;
+        }
+        if (2 * (size + 1) > indexKeys.length) {
+            rebuildIndex(indexKeys.length << 1);
+        }
+        int slot = allocateSlot();
+        items[slot] = value;
+        prev[slot] = tail;
+        next[slot] = NONE;
+        if (tail == NONE) {
+            head = slot;
+        } else {
+            next[tail] = slot;
+        }
+        tail = slot;
+        size++;
+        indexPut(value, slot);
+        return true;
+    }
+
+    public boolean remove(int value) {
+        int slot = indexRemove(value);
+        if (slot == NONE) {
+            return false;
+        }
+        if (prev[slot] == NONE) {
+            head = next[slot];
+        } else {
+            next[prev[slot]] = next[slot];
+        }
+        if (next[slot] == NONE) {
+            tail = prev[slot];
+        } else {
+            prev[next[slot]] = prev[slot];
+        }
+        next[slot] = free;
+        free = slot;
+        size--;
+        return true;
+    }
+
+    public boolean contains(int value) {
+        return find(value) != NONE;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        head = NONE;
+        tail = NONE;
+        free = NONE;
+        used = 0;
+        size = 0;
+        Arrays.fill(indexSlots, NONE);
+    }
+
+    // Обход ограничен размером списка, поэтому даже при чтении без блокировки он не зацикливается
+    public int[] toArray() {
+        int[] result = new int[size];
+        int slot = head;
+        int count = 0;
+        while ((count < result.length) && (slot != NONE)) {
+            result[count++] = items[slot];
+            slot = next[slot];
+        }
+        return (count == result.length) ? result : Arrays.copyOf(result, count);
+    }
+
+    // Не больше limit значений с конца списка, начиная с последнего добавленного
+    public int[] lastValues(int limit) {
+        int[] result = new int[Math.max(0, Math.min(limit, size))];
+        int slot = tail;
+        int count = 0;
+        while ((count < result.length) && (slot != NONE)) {
+            result[count++] = items[slot];
+            slot = prev[slot];
+        }
+        return (count == result.length) ? result : Arrays.copyOf(result, count);
+    }
+
+    public IntStream stream() {
+        return IntStream.of(toArray());
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    private int allocateSlot() {
+        if (free != NONE) {
+            int slot = free;
+            free = next[slot];
+            return slot;
+        }
+        if (used == items.length) {
+            int capacity = items.length << 1;
+            items = Arrays.copyOf(items, capacity);
+            next = Arrays.copyOf(next, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+        }
+        return used++;
+    }
+
+    private void allocateIndex(int capacity) {
+        indexKeys = new int[capacity];
+        indexSlots = new int[capacity];
+        indexMask = capacity - 1;
+        Arrays.fill(indexSlots, NONE);
+    }
+
+    private void rebuildIndex(int capacity) {
+        allocateIndex(capacity);
+        for (int slot = head; slot != NONE; slot = next[slot]) {
+            indexPut(items[slot], slot);
+        }
+    }
+
+    private int find(int value) {
+        int i = value & indexMask;
+        while (indexSlots[i] != NONE) {
+            if (indexKeys[i] == value) {
+                return indexSlots[i];
+            }
+            i = (i + 1) & indexMask;
+        }
+        return NONE;
+    }
+
+    private void indexPut(int value, int slot) {
+        int i = value & indexMask;
+        while (indexSlots[i] != NONE) {
+            i = (i + 1) & indexMask;
+        }
+        indexKeys[i] = value;
+        indexSlots[i] = slot;
+    }
+
+    // Удаление из индекса со сдвигом следующих элементов цепочки назад, как в InMemoryIntMap
+    private int indexRemove(int value) {
+        int i = value & indexMask;
+        while (indexSlots[i] != NONE) {
+            if (indexKeys[i] == value) {
+                int slot = indexSlots[i];
+                indexSlots[i] = NONE;
+                int hole = i;
+                while (true) {
+                    i = (i + 1) & indexMask;
+                    if (indexSlots[i] == NONE) {
+                        return slot;
+                    }
+                    int home = indexKeys[i] & indexMask;
+                    if (((i - home) & indexMask) >= ((i - hole) & indexMask)) {
+                        indexKeys[hole] = indexKeys[i];
+                        indexSlots[hole] = indexSlots[i];
+                        indexSlots[i] = NONE;
+                        hole = i;
+                    }
+                }
+            }
+            i = (i + 1) & indexMask;
+        }
+        return NONE;
+    }
+}
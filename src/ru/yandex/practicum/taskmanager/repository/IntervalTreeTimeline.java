@@ -0,0 +1,274 @@
+package ru.yandex.practicum.taskmanager.repository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// AVL-дерево интервалов, упорядоченное по паре (начало интервала, id задачи).
+// Каждый узел хранит максимальное время окончания в своем поддереве, что позволяет
+// проверить пересечение за O(log n) без выделения памяти.
+// Кроме того, узел хранит минимальное начало и наибольший промежуток между интервалами поддерева,
+// по которым свободное окно ищется без обхода поддеревьев, где окна нужной длины нет.
+public class IntervalTreeTimeline implements Timeline {
+    private Node root;
+    private int size;
+
+    @Override
+    public void put(LocalDateTime start, LocalDateTime finish, Integer id) {
+        root = insert(root, start, finish, id);
+    }
+
+    @Override
+    public void delete(LocalDateTime start, Integer id) {
+        root = remove(root, start, id);
+    }
+
+    @Override
+    public boolean isIntersected(LocalDateTime start, LocalDateTime finish) {
+        Node node = root;
+        while (node != null) {
+            if (node.start.isBefore(finish) && node.finish.isAfter(start)) {
+                return true;
+            }
+            // если в левом поддереве есть интервал, заканчивающийся после start, но не пересекающийся с
+            // [start, finish), то он начинается не раньше finish, а значит и все правое поддерево тоже
+            if ((node.left != null) && node.left.maxFinish.isAfter(start)) {
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return false;
+    }
+
+    // Обход в порядке начала интервалов, начиная с from. cursor - момент, до которого время занято
+    // уже пройденными интервалами. Поддерево пропускается целиком, если оно закончилось до cursor или
+    // если оно целиком лежит после cursor и промежутков нужной длины в нем нет
+    @Override
+    public LocalDateTime findFreeSlot(LocalDateTime from, Duration duration) {
+        LocalDateTime[] cursor = {from};
+        LocalDateTime slot = findFreeSlot(root, duration, cursor);
+        return (slot != null) ? slot : cursor[0];
+    }
+
+    private LocalDateTime findFreeSlot(Node node, Duration duration, LocalDateTime[] cursor) {
+        if ((node == null) || !node.maxFinish.isAfter(cursor[0])) {
+            return null;
+        }
+        if (!node.minStart.isBefore(cursor[0])) {
+            if (!cursor[0].plus(duration).isAfter(node.minStart)) {
+                return cursor[0];
+            }
+            if (node.maxGap.compareTo(duration) < 0) {
+                cursor[0] = node.maxFinish;
+                return null;
+            }
+        }
+        LocalDateTime slot = findFreeSlot(node.left, duration, cursor);
+        if (slot != null) {
+            return slot;
+        }
+        if (!cursor[0].plus(duration).isAfter(node.start)) {
+            return cursor[0];
+        }
+        if (node.finish.isAfter(cursor[0])) {
+            cursor[0] = node.finish;
+        }
+        return findFreeSlot(node.right, duration, cursor);
+    }
+
+    @Override
+    public List<Integer> values() {
+        if (root == null) {
+            return Collections.emptyList();
+        }
+        ArrayList<Integer> list = new ArrayList<>(size);
+        collect(root, list);
+        return list;
+    }
+
+    @Override
+    public List<Integer> values(LocalDateTime from, LocalDateTime to) {
+        ArrayList<Integer> list = new ArrayList<>();
+        collect(root, from, to, list);
+        return list;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    @Override
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    private void collect(Node node, List<Integer> list) {
+        if (node == null) {
+            return;
+        }
+        collect(node.left, list);
+        list.add(node.id);
+        collect(node.right, list);
+    }
+
+    // Обходятся только поддеревья, в которых есть интервалы, заканчивающиеся после from,
+    // и только узлы, начинающиеся раньше to, поэтому время обхода пропорционально размеру результата
+    private void collect(Node node, LocalDateTime from, LocalDateTime to, List<Integer> list) {
+        if ((node == null) || !node.maxFinish.isAfter(from)) {
+            return;
+        }
+        collect(node.left, from, to, list);
+        if (!node.start.isBefore(to)) {
+            return;
+        }
+        if (node.finish.isAfter(from)) {
+            list.add(node.id);
+        }
+        collect(node.right, from, to, list);
+    }
+
+    private Node insert(Node node, LocalDateTime start, LocalDateTime finish, Integer id) {
+        if (node == null) {
+            size++;
+            return new Node(start, finish, id);
+        }
+        int cmp = compare(start, id, node);
+        if (cmp < 0) {
+            node.left = insert(node.left, start, finish, id);
+        } else if (cmp > 0) {
+            node.right = insert(node.right, start, finish, id);
+        } else {
+            node.finish = finish;
+        }
+        return balance(node);
+    }
+
+    private Node remove(Node node, LocalDateTime start, Integer id) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, id, node);
+        if (cmp < 0) {
+            node.left = remove(node.left, start, id);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, start, id);
+        } else {
+            if ((node.left == null) || (node.right == null)) {
+                size--;
+                return (node.left != null) ? node.left : node.right;
+            }
+            Node min = node.right;
+            while (min.left != null) {
+                min = min.left;
+            }
+            node.start = min.start;
+            node.finish = min.finish;
+            node.id = min.id;
+            node.right = remove(node.right, min.start, min.id);
+        }
+        return balance(node);
+    }
+
+    private static int compare(LocalDateTime start, Integer id, Node node) {
+        int cmp = start.compareTo(node.start);
+        return (cmp != 0) ? cmp : id.compareTo(node.id);
+    }
+
+    private static int height(Node node) {
+        return (node == null) ? 0 : node.height;
+    }
+
+    private static void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        LocalDateTime max = node.finish;
+        if ((node.left != null) && node.left.maxFinish.isAfter(max)) {
+            max = node.left.maxFinish;
+        }
+        if ((node.right != null) && node.right.maxFinish.isAfter(max)) {
+            max = node.right.maxFinish;
+        }
+        node.maxFinish = max;
+        node.minStart = (node.left != null) ? node.left.minStart : node.start;
+
+        // промежутки считаются от максимального окончания предшествующих интервалов поддерева
+        Duration gap = Duration.ZERO;
+        LocalDateTime finishBefore = node.finish;
+        if (node.left != null) {
+            gap = maxOf(node.left.maxGap, Duration.between(node.left.maxFinish, node.start));
+            if (node.left.maxFinish.isAfter(finishBefore)) {
+                finishBefore = node.left.maxFinish;
+            }
+        }
+        if (node.right != null) {
+            gap = maxOf(gap, maxOf(node.right.maxGap, Duration.between(finishBefore, node.right.minStart)));
+        }
+        node.maxGap = gap;
+    }
+
+    private static Duration maxOf(Duration first, Duration second) {
+        return (first.compareTo(second) >= 0) ? first : second;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static Node balance(Node node) {
+        update(node);
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static class Node {
+        LocalDateTime start;
+        LocalDateTime finish;
+        LocalDateTime maxFinish;
+        LocalDateTime minStart;
+        Duration maxGap;
+        Integer id;
+        int height;
+        Node left;
+        Node right;
+
+        public Node(LocalDateTime start, LocalDateTime finish, Integer id) {
+            this.start = start;
+            this.finish = finish;
+            this.maxFinish = finish;
+            this.minStart = start;
+            this.maxGap = Duration.ZERO;
+            this.id = id;
+            this.height = 1;
+        }
+    }
+}
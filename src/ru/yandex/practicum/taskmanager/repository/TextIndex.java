@@ -0,0 +1,157 @@
+package ru.yandex.practicum.taskmanager.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Инвертированный индекс: для каждого слова хранится упорядоченное множество id задач, в тексте которых
+// оно встречается. Словом считается последовательность букв и цифр, регистр и различие "е"/"ё" не учитываются.
+// Поиск по нескольким словам возвращает задачи, содержащие все слова (И): перебирается самый короткий
+// список, а остальные проверяются на наличие id, поэтому при ограничении результата перебор прекращается рано
+public class TextIndex {
+    private final ConcurrentHashMap<String, Posting> postings;
+
+    public TextIndex() {
+        this.postings = new ConcurrentHashMap<>();
+    }
+
+    public static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char symbol = text.charAt(i);
+            if (Character.isLetterOrDigit(symbol)) {
+                char lower = Character.toLowerCase(symbol);
+                token.append((lower == 'ё') ? 'е' : lower);
+            } else if (!token.isEmpty()) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        if (!token.isEmpty()) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    // Слова нескольких полей, каждое поле разбирается отдельно, поля null пропускаются
+    private static Set<String> tokensOf(String[] fields) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String field : fields) {
+            tokens.addAll(tokenize(field));
+        }
+        return tokens;
+    }
+
+    public void add(Integer id, String... fields) {
+        for (String token : tokensOf(fields)) {
+            addToken(token, id);
+        }
+    }
+
+    public void remove(Integer id, String... fields) {
+        for (String token : tokensOf(fields)) {
+            removeToken(token, id);
+        }
+    }
+
+    public void update(Integer id, String oldText, String newText) {
+        update(id, new String[]{oldText}, new String[]{newText});
+    }
+
+    // Меняются только списки слов, которые появились в полях или исчезли из них
+    public void update(Integer id, String[] oldFields, String[] newFields) {
+        Set<String> oldTokens = tokensOf(oldFields);
+        Set<String> newTokens = tokensOf(newFields);
+        for (String token : oldTokens) {
+            if (!newTokens.contains(token)) {
+                removeToken(token, id);
+            }
+        }
+        for (String token : newTokens) {
+            if (!oldTokens.contains(token)) {
+                addToken(token, id);
+            }
+        }
+    }
+
+    // id задач, содержащих все слова запроса, в порядке возрастания, не больше limit
+    public List<Integer> search(String query, int limit) {
+        Set<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || (limit <= 0)) {
+            return Collections.emptyList();
+        }
+        List<Posting> lists = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            Posting list = postings.get(token);
+            if (list == null) {
+                return Collections.emptyList();
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(Posting::size));
+        List<Integer> result = new ArrayList<>();
+        for (Integer id : lists.getFirst().ids) {
+            if (isInAll(lists, id)) {
+                result.add(id);
+                if (result.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    public void clear() {
+        postings.clear();
+    }
+
+    private static boolean isInAll(List<Posting> lists, Integer id) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).ids.contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Списки изменяются внутри compute, чтобы пустой список не был удален одновременно с добавлением в него
+    private void addToken(String token, Integer id) {
+        postings.compute(token, (key, list) -> {
+            Posting posting = (list == null) ? new Posting() : list;
+            if (posting.ids.add(id)) {
+                posting.size.incrementAndGet();
+            }
+            return posting;
+        });
+    }
+
+    private void removeToken(String token, Integer id) {
+        postings.computeIfPresent(token, (key, list) -> {
+            if (list.ids.remove(id)) {
+                list.size.decrementAndGet();
+            }
+            return list.ids.isEmpty() ? null : list;
+        });
+    }
+
+    // Размер хранится отдельно: у ConcurrentSkipListSet он вычисляется обходом всего множества
+    private static class Posting {
+        final NavigableSet<Integer> ids = new ConcurrentSkipListSet<>();
+        final AtomicInteger size = new AtomicInteger();
+
+        int size() {
+            return size.get();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package ru.yandex.practicum.taskmanager.repository;
+
+import java.time.LocalDateTime;
+import java.util.TreeMap;
+
+// Мультимножество интервалов, хранящее только их границы.
+// Минимальное начало и максимальное окончание доступны за O(log k), добавление и удаление - тоже за O(log k).
+public class TimeBounds {
+    private final TreeMap<LocalDateTime, Integer> starts;
+    private final TreeMap<LocalDateTime, Integer> finishes;
+
+    public TimeBounds() {
+        this.starts = new TreeMap<>();
+        this.finishes = new TreeMap<>();
+    }
+
+    public void add(LocalDateTime start, LocalDateTime finish) {
+        starts.merge(start, 1, Integer::sum);
+        finishes.merge(finish, 1, Integer::sum);
+    }
+
+    public void remove(LocalDateTime start, LocalDateTime finish) {
+        decrement(starts, start);
+        decrement(finishes, finish);
+    }
+
+    public LocalDateTime getStart() {
+        return starts.isEmpty() ? null : starts.firstKey();
+    }
+
+    public LocalDateTime getFinish() {
+        return finishes.isEmpty() ? null : finishes.lastKey();
+    }
+
+    public boolean isEmpty() {
+        return starts.isEmpty();
+    }
+
+    private static void decrement(TreeMap<LocalDateTime, Integer> map, LocalDateTime key) {
+        map.computeIfPresent(key, (k, count) -> (count > 1) ? count - 1 : null);
+    }
+}
@@ -0,0 +1,29 @@
+package ru.yandex.practicum.taskmanager.repository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Хранилище интервалов [start, finish) задач с заданным временем.
+// Ключом служит пара (start, id), поэтому задачи с совпадающим началом не вытесняют друг друга.
+public interface Timeline {
+    void put(LocalDateTime start, LocalDateTime finish, Integer id);
+
+    void delete(LocalDateTime start, Integer id);
+
+    // Пересекается ли интервал [start, finish) хотя бы с одним сохраненным интервалом
+    boolean isIntersected(LocalDateTime start, LocalDateTime finish);
+
+    // Самое раннее начало окна длиной duration не раньше from, не занятое сохраненными интервалами
+    LocalDateTime findFreeSlot(LocalDateTime from, Duration duration);
+
+    // id задач в порядке возрастания времени начала, при равном начале - в порядке возрастания id
+    List<Integer> values();
+
+    // id задач, интервалы которых пересекаются с [from, to), в том же порядке, что и values()
+    List<Integer> values(LocalDateTime from, LocalDateTime to);
+
+    boolean isEmpty();
+
+    void clear();
+}
@@ -0,0 +1,269 @@
+package ru.yandex.practicum.taskmanager.service;
+
+import ru.yandex.practicum.taskmanager.repository.InMemoryConcurrentMap;
+import ru.yandex.practicum.taskmanager.repository.IntList;
+import ru.yandex.practicum.taskmanager.repository.Repository;
+import ru.yandex.practicum.taskmanager.repository.Timeline;
+import ru.yandex.practicum.taskmanager.tasks.*;
+import ru.yandex.practicum.taskmanager.utils.Generator;
+import ru.yandex.practicum.taskmanager.utils.HistoryManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+// Потокобезопасный менеджер задач.
+// Эпик вместе со своими подзадачами защищается одной блокировкой из набора, выбираемой по id эпика,
+// поэтому изменения разных эпиков и самостоятельных задач выполняются параллельно.
+// Проверка пересечения по времени и изменение таймлайна выполняются под общей блокировкой таймлайна,
+// которая всегда берется после блокировки эпика.
+// Каждое изменение одной задачи держит разделяемую блокировку структуры, а очистка и пакетные операции -
+// исключительную, поэтому они не видят индексы, изменённые наполовину.
+// Списки задач по типу читаются под разделяемой блокировкой; задачи, удаленные во время чтения, пропускаются.
+// Репозитории и история должны быть потокобезопасными, см. Managers.getConcurrent()
+public class ConcurrentTaskManager extends RegularTaskManager {
+    private static final int STRIPES_NUMBER = 64;
+    private final Repository<Integer, Task> tasks;
+    private final ReentrantLock[] stripes;
+    private final ReentrantReadWriteLock timelineLock;
+    private final ReentrantReadWriteLock structureLock;
+
+    public ConcurrentTaskManager(Repository<Integer, Task> tasks,
+                                 Repository<Integer, IntList> subordinates,
+                                 Generator generator,
+                                 HistoryManager history,
+                                 Timeline timeline
+    ) {
+        super(tasks, subordinates, generator, history, timeline, new InMemoryConcurrentMap<>(),
+                new InMemoryConcurrentMap<>(), ConcurrentSkipListSet::new);
+        this.tasks = tasks;
+        this.stripes = new ReentrantLock[STRIPES_NUMBER];
+        for (int i = 0; i < STRIPES_NUMBER; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.timelineLock = new ReentrantReadWriteLock();
+        this.structureLock = new ReentrantReadWriteLock();
+    }
+
+    private Lock stripe(Integer id) {
+        return stripes[Math.floorMod(id.hashCode(), STRIPES_NUMBER)];
+    }
+
+    // Выполняет action под разделяемой блокировкой структуры и блокировкой эпика stripeId (если он задан).
+    // Необходимость блокировки таймлайна определяется уже после захвата блокировки эпика,
+    // когда сохраненная задача не может измениться
+    private <T> T locked(Integer stripeId, BooleanSupplier needsTimeline, Supplier<T> action) {
+        Lock structureReadLock = structureLock.readLock();
+        structureReadLock.lock();
+        try {
+            Lock stripe = (stripeId == null) ? null : stripe(stripeId);
+            if (stripe != null) {
+                stripe.lock();
+            }
+            try {
+                return needsTimeline.getAsBoolean() ? timelineLocked(action) : action.get();
+            } finally {
+                if (stripe != null) {
+                    stripe.unlock();
+                }
+            }
+        } finally {
+            structureReadLock.unlock();
+        }
+    }
+
+    private <T> T timelineLocked(Supplier<T> action) {
+        Lock timelineWriteLock = timelineLock.writeLock();
+        timelineWriteLock.lock();
+        try {
+            return action.get();
+        } finally {
+            timelineWriteLock.unlock();
+        }
+    }
+
+    private boolean isTimeDefined(Integer id) {
+        Task task = tasks.get(id);
+        return (task != null) && task.isTimeDefined();
+    }
+
+    // Выполняет action под исключительной блокировкой структуры и блокировкой таймлайна,
+    // когда ни одна задача не изменяется
+    private <T> T lockedAll(Supplier<T> action) {
+        Lock structureWriteLock = structureLock.writeLock();
+        structureWriteLock.lock();
+        try {
+            return timelineLocked(action);
+        } finally {
+            structureWriteLock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lockedAll(() -> {
+            super.clear();
+            return null;
+        });
+    }
+
+    @Override
+    public Selftask add(Selftask task) {
+        if (task == null) {
+            return null;
+        }
+        return locked(null, task::isTimeDefined, () -> super.add(task));
+    }
+
+    @Override
+    public Epictask add(Epictask task) {
+        if (task == null) {
+            return null;
+        }
+        return locked(null, () -> false, () -> super.add(task));
+    }
+
+    @Override
+    public Subtask add(Subtask task) {
+        if ((task == null) || (task.getEpicId() == null)) {
+            return null;
+        }
+        return locked(task.getEpicId(), task::isTimeDefined, () -> super.add(task));
+    }
+
+    @Override
+    public Task delete(Integer id) {
+        Task task = tasks.get(id);
+        if (task == null) {
+            return null;
+        }
+        return switch (task.getSubordination()) {
+            case SELF -> locked(id, () -> isTimeDefined(id), () -> super.delete(id));
+            case EPIC -> locked(id, () -> true, () -> super.delete(id));
+            case SUBTASK -> locked(((Subtask) task).getEpicId(), () -> isTimeDefined(id), () -> super.delete(id));
+        };
+    }
+
+    @Override
+    public List<Subtask> getAllSubs(int id) {
+        return locked(id, () -> false, () -> super.getAllSubs(id));
+    }
+
+    @Override
+    public Selftask update(Selftask task) {
+        if ((task == null) || (task.getId() == null)) {
+            return null;
+        }
+        Integer id = task.getId();
+        Task oldTask = tasks.get(id);
+        if ((oldTask == null) || (oldTask.getSubordination() != Subordination.SELF)) {
+            return null;
+        }
+        return locked(id, () -> task.isTimeDefined() || isTimeDefined(id), () -> super.update(task));
+    }
+
+    @Override
+    public Epictask update(Epictask task) {
+        if ((task == null) || (task.getId() == null)) {
+            return null;
+        }
+        Integer id = task.getId();
+        Task oldTask = tasks.get(id);
+        if ((oldTask == null) || (oldTask.getSubordination() != Subordination.EPIC)) {
+            return null;
+        }
+        return locked(id, () -> false, () -> super.update(task));
+    }
+
+    @Override
+    public Subtask update(Subtask task) {
+        if ((task == null) || (task.getId() == null)) {
+            return null;
+        }
+        Integer id = task.getId();
+        Task oldTask = tasks.get(id);
+        if ((oldTask == null) || (oldTask.getSubordination() != Subordination.SUBTASK)) {
+            return null;
+        }
+        Integer epicId = ((Subtask) oldTask).getEpicId();
+        return locked(epicId, () -> task.isTimeDefined() || isTimeDefined(id), () -> super.update(task));
+    }
+
+    // Пакет может затрагивать любые эпики, поэтому он выполняется под исключительной блокировкой
+    @Override
+    public List<Task> addAll(List<? extends Task> batch) {
+        return lockedAll(() -> super.addAll(batch));
+    }
+
+    @Override
+    public List<Task> updateAll(List<? extends Task> batch) {
+        return lockedAll(() -> super.updateAll(batch));
+    }
+
+    @Override
+    public List<Task> deleteAll(List<Integer> ids) {
+        return lockedAll(() -> super.deleteAll(ids));
+    }
+
+    @Override
+    public List<Task> getAllSelftasks() {
+        return withoutDeleted(super::getAllSelftasks);
+    }
+
+    @Override
+    public List<Task> getAllSubtasks() {
+        return withoutDeleted(super::getAllSubtasks);
+    }
+
+    @Override
+    public List<Task> getAllEpictasks() {
+        return withoutDeleted(super::getAllEpictasks);
+    }
+
+    // id задачи, удаленной параллельно, может еще оставаться в индексе, а в хранилище ее уже нет
+    private List<Task> withoutDeleted(Supplier<List<Task>> reader) {
+        return locked(null, () -> false, reader).stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private <T> T timelineRead(Supplier<T> reader) {
+        Lock timelineReadLock = timelineLock.readLock();
+        timelineReadLock.lock();
+        try {
+            return reader.get();
+        } finally {
+            timelineReadLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return timelineRead(super::getPrioritizedTasks);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        return timelineRead(() -> super.getPrioritizedTasks(from, to));
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(LocalDateTime from, Duration duration) {
+        return timelineRead(() -> super.findFreeSlot(from, duration));
+    }
+
+    @Override
+    public EpicProgress getEpicProgress(Integer id) {
+        if (id == null) {
+            return null;
+        }
+        return locked(id, () -> false, () -> super.getEpicProgress(id));
+    }
+}
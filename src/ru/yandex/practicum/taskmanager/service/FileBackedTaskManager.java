@@ -0,0 +1,289 @@
+package ru.yandex.practicum.taskmanager.service;
+
+import ru.yandex.practicum.taskmanager.repository.IntList;
+import ru.yandex.practicum.taskmanager.repository.Repository;
+import ru.yandex.practicum.taskmanager.repository.Timeline;
+import ru.yandex.practicum.taskmanager.tasks.*;
+import ru.yandex.practicum.taskmanager.utils.Generator;
+import ru.yandex.practicum.taskmanager.exceptions.ManagerSaveException;
+import ru.yandex.practicum.taskmanager.utils.HistoryManager;
+import ru.yandex.practicum.taskmanager.utils.TaskSnapshot;
+import ru.yandex.practicum.taskmanager.utils.WriteAheadLog;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Менеджер задач, сохраняющий все изменения в журнале (см. WriteAheadLog).
+// При создании состояние восстанавливается повтором журнала. Затем каждое успешное изменение дописывается
+// в журнал: добавление и обновление - сохраненной версией задачи, удаление - id задачи.
+// Производные поля эпиков в журнал не пишутся, они пересчитываются при повторе.
+// Запись в журнал не ждет диска: записи сбрасываются на диск группами раз в flushInterval,
+// поэтому при сбое могут потеряться изменения только за последний интервал.
+// Чтобы журнал не рос бесконечно, после каждых snapshotEvery записей делается снимок всех задач
+// (см. TaskSnapshot): текущий сегмент журнала закрывается, а снимок пишется в фоновом потоке.
+// Задачи в хранилище не изменяются после сохранения, поэтому для снимка достаточно скопировать ссылки на них.
+// После записи снимка учтенные в нем сегменты удаляются. При запуске загружается снимок и повторяются
+// только более поздние сегменты и текущий журнал. Подзадачи эпиков и шкала времени в снимок не пишутся,
+// они строятся заново при загрузке задач
+public class FileBackedTaskManager extends RegularTaskManager {
+    private final WriteAheadLog log;
+    private final Path logFile;
+    private final Path snapshotFile;
+    private final int snapshotEvery;
+    private final ExecutorService snapshotWriter;
+    private Future<?> lastSnapshot;
+    private long generation;
+    private int lastId;
+    private int records;
+
+    public FileBackedTaskManager(Repository<Integer, Task> tasks,
+                                 Repository<Integer, IntList> subordinates,
+                                 Generator generator,
+                                 HistoryManager history,
+                                 Timeline timeline,
+                                 Path logFile,
+                                 Duration flushInterval,
+                                 int snapshotEvery
+    ) {
+        super(tasks, subordinates, generator, history, timeline);
+        this.logFile = logFile;
+        this.snapshotFile = logFile.resolveSibling(logFile.getFileName() + ".snapshot");
+        this.snapshotEvery = snapshotEvery;
+        WriteAheadLog.Listener listener = new WriteAheadLog.Listener() {
+            @Override
+            public void put(Task task) {
+                restore(task);
+                lastId = Math.max(lastId, task.getId());
+                records++;
+            }
+
+            @Override
+            public void delete(Integer id) {
+                FileBackedTaskManager.super.delete(id);
+                records++;
+            }
+
+            @Override
+            public void clear() {
+                FileBackedTaskManager.super.clear();
+                records++;
+            }
+        };
+        TaskSnapshot snapshot = TaskSnapshot.read(snapshotFile);
+        if (snapshot != null) {
+            generation = snapshot.generation();
+            lastId = snapshot.lastId();
+            generator.skipTo(lastId);
+            snapshot.tasks().forEach(listener::put);
+            records = 0;
+        }
+        long covered = generation;
+        for (long segment : segments()) {
+            if (segment > covered) {
+                WriteAheadLog.replay(segment(segment), listener);
+            }
+            generation = Math.max(generation, segment);
+        }
+        deleteSegments(covered);
+        this.log = WriteAheadLog.open(logFile, flushInterval);
+        log.replay(listener);
+        this.snapshotWriter = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private Path segment(long number) {
+        return logFile.resolveSibling(logFile.getFileName() + "." + number);
+    }
+
+    // Номера закрытых сегментов журнала в порядке возрастания
+    private List<Long> segments() {
+        String prefix = logFile.getFileName() + ".";
+        Path directory = logFile.toAbsolutePath().getParent();
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix))
+                    .map(name -> name.substring(prefix.length()))
+                    .filter(suffix -> !suffix.isEmpty() && suffix.chars().allMatch(Character::isDigit))
+                    .map(Long::parseLong)
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new ManagerSaveException(String.format("Unable to list task log segments in %s!", directory), e);
+        }
+    }
+
+    // Удаление сегментов, изменения из которых уже есть в снимке
+    private void deleteSegments(long covered) {
+        for (long segment : segments()) {
+            if (segment <= covered) {
+                try {
+                    Files.deleteIfExists(segment(segment));
+                } catch (IOException e) {
+                    throw new ManagerSaveException(String.format("Unable to delete task log segment %s!",
+                            segment(segment)), e);
+                }
+            }
+        }
+    }
+
+    // Изменение, которое не удастся записать в журнал, не должно попасть и в память,
+    // поэтому ошибка записи журнала проверяется до изменения
+    private void writable() {
+        log.checkWritable();
+    }
+
+    private void put(Task task) {
+        log.put(task);
+        lastId = Math.max(lastId, task.getId());
+    }
+
+    private <T extends Task> T logged(T task) {
+        if (task != null) {
+            put(task);
+            counted(1);
+        }
+        return task;
+    }
+
+    private void counted(int added) {
+        records += added;
+        if ((records >= snapshotEvery) && ((lastSnapshot == null) || lastSnapshot.isDone())) {
+            snapshot();
+        }
+    }
+
+    // Снимок текущего состояния в фоновом потоке. Возвращает завершение записи снимка.
+    // В потоке вызова только закрывается сегмент журнала и копируются ссылки на задачи
+    public Future<?> snapshot() {
+        records = 0;
+        generation++;
+        long covered = generation;
+        log.rotate(segment(covered));
+        TaskSnapshot snapshot = new TaskSnapshot(covered, lastId, getAll());
+        lastSnapshot = snapshotWriter.submit(() -> {
+            // сегмент должен быть записан до снимка, иначе его записи повторятся поверх снимка
+            log.flush();
+            TaskSnapshot.write(snapshotFile, snapshot);
+            deleteSegments(covered);
+        });
+        return lastSnapshot;
+    }
+
+    // Немедленная запись журнала на диск
+    public void flush() {
+        log.flush();
+    }
+
+    @Override
+    public void close() {
+        snapshotWriter.shutdown();
+        try {
+            snapshotWriter.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.close();
+        super.close();
+    }
+
+    @Override
+    public void clear() {
+        writable();
+        super.clear();
+        log.clear();
+        counted(1);
+    }
+
+    @Override
+    public Selftask add(Selftask task) {
+        writable();
+        return logged(super.add(task));
+    }
+
+    @Override
+    public Epictask add(Epictask task) {
+        writable();
+        return logged(super.add(task));
+    }
+
+    @Override
+    public Subtask add(Subtask task) {
+        writable();
+        return logged(super.add(task));
+    }
+
+    @Override
+    public Task delete(Integer id) {
+        writable();
+        Task task = super.delete(id);
+        if (task != null) {
+            log.delete(id);
+            counted(1);
+        }
+        return task;
+    }
+
+    @Override
+    public Selftask update(Selftask task) {
+        writable();
+        return logged(super.update(task));
+    }
+
+    @Override
+    public Epictask update(Epictask task) {
+        writable();
+        return logged(super.update(task));
+    }
+
+    @Override
+    public Subtask update(Subtask task) {
+        writable();
+        return logged(super.update(task));
+    }
+
+    // Записи пакета повторяются без проверок, поэтому порядок задач внутри пакета не важен.
+    // Снимок делается только после записи всего пакета
+    @Override
+    public List<Task> addAll(List<? extends Task> batch) {
+        writable();
+        List<Task> added = super.addAll(batch);
+        if (added != null) {
+            added.forEach(this::put);
+            counted(added.size());
+        }
+        return added;
+    }
+
+    @Override
+    public List<Task> updateAll(List<? extends Task> batch) {
+        writable();
+        List<Task> updated = super.updateAll(batch);
+        if (updated != null) {
+            updated.forEach(this::put);
+            counted(updated.size());
+        }
+        return updated;
+    }
+
+    @Override
+    public List<Task> deleteAll(List<Integer> ids) {
+        writable();
+        List<Task> deleted = super.deleteAll(ids);
+        if (deleted != null) {
+            deleted.forEach(u -> log.delete(u.getId()));
+            counted(deleted.size());
+        }
+        return deleted;
+    }
+}
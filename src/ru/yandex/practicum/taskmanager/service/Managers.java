@@ -1,36 +1,98 @@
 package ru.yandex.practicum.taskmanager.service;
 
-import ru.yandex.practicum.taskmanager.repository.InMemoryMap;
-import ru.yandex.practicum.taskmanager.repository.InMemoryTreeMap;
+import ru.yandex.practicum.taskmanager.repository.InMemoryConcurrentMap;
+import ru.yandex.practicum.taskmanager.repository.InMemoryIntMap;
+import ru.yandex.practicum.taskmanager.repository.IntList;
+import ru.yandex.practicum.taskmanager.repository.IntervalTreeTimeline;
 import ru.yandex.practicum.taskmanager.repository.Repository;
+import ru.yandex.practicum.taskmanager.repository.Timeline;
 import ru.yandex.practicum.taskmanager.tasks.Task;
+import ru.yandex.practicum.taskmanager.utils.BlockGenerator;
+import ru.yandex.practicum.taskmanager.utils.BoundedHistoryManager;
+import ru.yandex.practicum.taskmanager.utils.ConcurrentHistoryManager;
+import ru.yandex.practicum.taskmanager.utils.DurabilityPolicy;
 import ru.yandex.practicum.taskmanager.utils.FileBackedHistoryManager;
 import ru.yandex.practicum.taskmanager.utils.Generator;
 import ru.yandex.practicum.taskmanager.utils.HistoryManager;
+import ru.yandex.practicum.taskmanager.utils.IdHistoryManager;
 import ru.yandex.practicum.taskmanager.utils.SerialGenerator;
 
 import java.nio.file.Path;
-import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.time.Clock;
+import java.time.Duration;
 
 public class Managers {
     private static final int START_ID_BY_DEFAULT = 1;
+    private static final int ID_BLOCK_SIZE_BY_DEFAULT = 64;
     private static final Path PATH_HISTORY_BY_DEFAULT =
             Path.of("src/ru/yandex/practicum/taskmanager/repository/history.csv");
     private static final boolean LOAD_HISTORY_BY_DEFAULT = true;
+    private static final DurabilityPolicy HISTORY_DURABILITY_BY_DEFAULT = DurabilityPolicy.INTERVAL;
+    private static final Duration HISTORY_FLUSH_INTERVAL_BY_DEFAULT = Duration.ofMillis(50);
+    private static final Path PATH_TASK_LOG_BY_DEFAULT =
+            Path.of("src/ru/yandex/practicum/taskmanager/repository/tasks.log");
+    private static final Duration TASK_LOG_FLUSH_INTERVAL_BY_DEFAULT = Duration.ofMillis(10);
+    private static final int TASK_SNAPSHOT_EVERY_BY_DEFAULT = 100_000;
+    private static final Path PATH_TASK_IDS_BY_DEFAULT =
+            Path.of("src/ru/yandex/practicum/taskmanager/repository/tasks.log.ids");
 
     public static TaskManager getDefault() {
-        Repository<Integer, Task> tasks = new InMemoryMap<>();
-        Repository<Integer, ArrayList<Integer>> subordinates = new InMemoryMap<>();
+        Repository<Integer, Task> tasks = new InMemoryIntMap<>();
+        Repository<Integer, IntList> subordinates = new InMemoryIntMap<>();
         Generator generator = new SerialGenerator(START_ID_BY_DEFAULT);
         HistoryManager history = getDefaultHistory();
-        Repository<LocalDateTime, Integer> starts = new InMemoryTreeMap<>(LocalDateTime::compareTo);
-        Repository<LocalDateTime, Integer> finishes = new InMemoryTreeMap<>(LocalDateTime::compareTo);
-        return new RegularTaskManager(tasks, subordinates, generator, history, starts, finishes);
+        Timeline timeline = new IntervalTreeTimeline();
+        return new RegularTaskManager(tasks, subordinates, generator, history, timeline);
+    }
+
+    // История хранит только id задач и берет задачи из хранилища менеджера
+    public static TaskManager getWithIdHistory() {
+        Repository<Integer, Task> tasks = new InMemoryIntMap<>();
+        Repository<Integer, IntList> subordinates = new InMemoryIntMap<>();
+        Generator generator = new SerialGenerator(START_ID_BY_DEFAULT);
+        HistoryManager history = new IdHistoryManager(tasks::get);
+        Timeline timeline = new IntervalTreeTimeline();
+        return new RegularTaskManager(tasks, subordinates, generator, history, timeline);
+    }
+
+    // id выдаются потокам блоками, без общей блокировки на каждую новую задачу
+    public static TaskManager getConcurrent() {
+        Repository<Integer, Task> tasks = new InMemoryConcurrentMap<>();
+        Repository<Integer, IntList> subordinates = new InMemoryConcurrentMap<>();
+        Generator generator = new BlockGenerator(START_ID_BY_DEFAULT, ID_BLOCK_SIZE_BY_DEFAULT);
+        HistoryManager history = new ConcurrentHistoryManager(getDefaultHistory());
+        Timeline timeline = new IntervalTreeTimeline();
+        return new ConcurrentTaskManager(tasks, subordinates, generator, history, timeline);
+    }
+
+    public static TaskManager getReadOptimized() {
+        Repository<Integer, Task> tasks = new InMemoryConcurrentMap<>();
+        Repository<Integer, IntList> subordinates = new InMemoryConcurrentMap<>();
+        Generator generator = new BlockGenerator(START_ID_BY_DEFAULT, ID_BLOCK_SIZE_BY_DEFAULT);
+        HistoryManager history = new ConcurrentHistoryManager(getDefaultHistory());
+        Timeline timeline = new IntervalTreeTimeline();
+        return new ReadOptimizedTaskManager(tasks, subordinates, generator, history, timeline);
+    }
+
+    public static FileBackedTaskManager getFileBacked() {
+        Repository<Integer, Task> tasks = new InMemoryIntMap<>();
+        Repository<Integer, IntList> subordinates = new InMemoryIntMap<>();
+        Generator generator = new BlockGenerator(START_ID_BY_DEFAULT, ID_BLOCK_SIZE_BY_DEFAULT,
+                PATH_TASK_IDS_BY_DEFAULT);
+        HistoryManager history = getDefaultHistory();
+        Timeline timeline = new IntervalTreeTimeline();
+        return new FileBackedTaskManager(tasks, subordinates, generator, history, timeline,
+                PATH_TASK_LOG_BY_DEFAULT, TASK_LOG_FLUSH_INTERVAL_BY_DEFAULT, TASK_SNAPSHOT_EVERY_BY_DEFAULT);
+    }
+
+    // История не больше capacity задач, timeToLive == null - без ограничения времени хранения
+    public static HistoryManager getBoundedHistory(int capacity, Duration timeToLive) {
+        return new BoundedHistoryManager(capacity, timeToLive, Clock.systemUTC());
     }
 
     public static HistoryManager getDefaultHistory() {
-        return new FileBackedHistoryManager(PATH_HISTORY_BY_DEFAULT, LOAD_HISTORY_BY_DEFAULT);
+        return new FileBackedHistoryManager(PATH_HISTORY_BY_DEFAULT, LOAD_HISTORY_BY_DEFAULT,
+                HISTORY_DURABILITY_BY_DEFAULT, HISTORY_FLUSH_INTERVAL_BY_DEFAULT);
     }
 
 }
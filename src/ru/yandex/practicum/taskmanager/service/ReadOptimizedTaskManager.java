@@ -0,0 +1,245 @@
+package ru.yandex.practicum.taskmanager.service;
+
+import ru.yandex.practicum.taskmanager.repository.InMemoryConcurrentMap;
+import ru.yandex.practicum.taskmanager.repository.IntList;
+import ru.yandex.practicum.taskmanager.repository.Repository;
+import ru.yandex.practicum.taskmanager.repository.Timeline;
+import ru.yandex.practicum.taskmanager.tasks.*;
+import ru.yandex.practicum.taskmanager.utils.Generator;
+import ru.yandex.practicum.taskmanager.utils.HistoryManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+// Потокобезопасный менеджер задач для нагрузки, в которой чтений намного больше, чем изменений.
+// Изменения выполняются последовательно под блокировкой записи. Чтение одной задачи не блокируется:
+// она читается оптимистично и проверяется штампом, и только если во время чтения произошла запись,
+// чтение повторяется под блокировкой. Списки задач читаются под блокировкой чтения (читатели не мешают
+// друг другу): при обходе структуры, которую одновременно меняет писатель, можно попасть в цикл
+// и не дойти до проверки штампа. Список задач по времени начала хранится в виде снимка, который
+// пересчитывается только после изменений.
+// В историю задача попадает после успешного чтения, вне блокировок.
+// Репозитории и история должны быть потокобезопасными, см. Managers.getReadOptimized()
+public class ReadOptimizedTaskManager extends RegularTaskManager {
+    private final Repository<Integer, Task> tasks;
+    private final HistoryManager history;
+    private final StampedLock lock;
+    private volatile long version;
+    private volatile Snapshot prioritized;
+
+    public ReadOptimizedTaskManager(Repository<Integer, Task> tasks,
+                                    Repository<Integer, IntList> subordinates,
+                                    Generator generator,
+                                    HistoryManager history,
+                                    Timeline timeline
+    ) {
+        super(tasks, subordinates, generator, history, timeline, new InMemoryConcurrentMap<>(),
+                new InMemoryConcurrentMap<>(), ConcurrentSkipListSet::new);
+        this.tasks = tasks;
+        this.history = history;
+        this.lock = new StampedLock();
+    }
+
+    private <T> T read(Supplier<T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            try {
+                T result = reader.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                // структуры изменялись во время чтения, результат недействителен - читаем под блокировкой
+            }
+        }
+        return readLocked(reader);
+    }
+
+    private <T> T readLocked(Supplier<T> reader) {
+        long stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private <T> T write(Supplier<T> writer) {
+        long stamp = lock.writeLock();
+        try {
+            return writer.get();
+        } finally {
+            version++;
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private Task getOfType(Integer id, Subordination subordination, boolean track) {
+        if (id == null) {
+            return null;
+        }
+        Task task = read(() -> tasks.get(id));
+        if ((task == null) || (task.getSubordination() != subordination)) {
+            return null;
+        }
+        if (track) {
+            history.add(task);
+        }
+        return task;
+    }
+
+    @Override
+    public Task get(Integer id, boolean track) {
+        if (id == null) {
+            return null;
+        }
+        Task task = read(() -> tasks.get(id));
+        if ((task != null) && track) {
+            history.add(task);
+        }
+        return task;
+    }
+
+    @Override
+    public Epictask getEpic(Integer id, boolean track) {
+        return (Epictask) getOfType(id, Subordination.EPIC, track);
+    }
+
+    @Override
+    public Selftask getSelftask(Integer id, boolean track) {
+        return (Selftask) getOfType(id, Subordination.SELF, track);
+    }
+
+    @Override
+    public Subtask getSubtask(Integer id, boolean track) {
+        return (Subtask) getOfType(id, Subordination.SUBTASK, track);
+    }
+
+    @Override
+    public List<Task> getAll() {
+        return readLocked(super::getAll);
+    }
+
+    @Override
+    public List<Subtask> getAllSubs(int id) {
+        return readLocked(() -> super.getAllSubs(id));
+    }
+
+    @Override
+    public List<Task> getAllSelftasks() {
+        return readLocked(super::getAllSelftasks);
+    }
+
+    @Override
+    public List<Task> getAllSubtasks() {
+        return readLocked(super::getAllSubtasks);
+    }
+
+    @Override
+    public List<Task> getAllEpictasks() {
+        return readLocked(super::getAllEpictasks);
+    }
+
+    @Override
+    public List<Task> getAllByStatus(Subordination subordination, Status status) {
+        return readLocked(() -> super.getAllByStatus(subordination, status));
+    }
+
+    @Override
+    public List<Task> search(String query, int limit) {
+        return readLocked(() -> super.search(query, limit));
+    }
+
+    @Override
+    public EpicProgress getEpicProgress(Integer id) {
+        return read(() -> super.getEpicProgress(id));
+    }
+
+    // Дерево таймлайна нельзя читать одновременно с его перестройкой, поэтому обход дерева выполняется
+    // под блокировкой чтения. Снимок списка задач по времени отдается всем читателям до следующего изменения
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        Snapshot snapshot = prioritized;
+        if ((snapshot != null) && (snapshot.version == version)) {
+            return snapshot.tasks;
+        }
+        snapshot = readLocked(() -> new Snapshot(version, super.getPrioritizedTasks()));
+        prioritized = snapshot;
+        return snapshot.tasks;
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        return readLocked(() -> super.getPrioritizedTasks(from, to));
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(LocalDateTime from, Duration duration) {
+        return readLocked(() -> super.findFreeSlot(from, duration));
+    }
+
+    @Override
+    public void clear() {
+        write(() -> {
+            super.clear();
+            return null;
+        });
+    }
+
+    @Override
+    public Selftask add(Selftask task) {
+        return write(() -> super.add(task));
+    }
+
+    @Override
+    public Epictask add(Epictask task) {
+        return write(() -> super.add(task));
+    }
+
+    @Override
+    public Subtask add(Subtask task) {
+        return write(() -> super.add(task));
+    }
+
+    @Override
+    public Task delete(Integer id) {
+        return write(() -> super.delete(id));
+    }
+
+    @Override
+    public Selftask update(Selftask task) {
+        return write(() -> super.update(task));
+    }
+
+    @Override
+    public Epictask update(Epictask task) {
+        return write(() -> super.update(task));
+    }
+
+    @Override
+    public Subtask update(Subtask task) {
+        return write(() -> super.update(task));
+    }
+
+    @Override
+    public List<Task> addAll(List<? extends Task> batch) {
+        return write(() -> super.addAll(batch));
+    }
+
+    @Override
+    public List<Task> updateAll(List<? extends Task> batch) {
+        return write(() -> super.updateAll(batch));
+    }
+
+    @Override
+    public List<Task> deleteAll(List<Integer> ids) {
+        return write(() -> super.deleteAll(ids));
+    }
+
+    private record Snapshot(long version, List<Task> tasks) {
+    }
+}
@@ -1,6 +1,11 @@
 package ru.yandex.practicum.taskmanager.service;
 
+import ru.yandex.practicum.taskmanager.repository.InMemoryIntMap;
+import ru.yandex.practicum.taskmanager.repository.IntList;
 import ru.yandex.practicum.taskmanager.repository.Repository;
+import ru.yandex.practicum.taskmanager.repository.TextIndex;
+import ru.yandex.practicum.taskmanager.repository.TimeBounds;
+import ru.yandex.practicum.taskmanager.repository.Timeline;
 import ru.yandex.practicum.taskmanager.tasks.*;
 import ru.yandex.practicum.taskmanager.utils.Generator;
 import ru.yandex.practicum.taskmanager.utils.HistoryManager;
@@ -9,63 +14,96 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
 
 public class RegularTaskManager implements TaskManager {
     private final Repository<Integer, Task> tasks;
-    private final Repository<Integer, ArrayList<Integer>> subordinates;
+    private final Repository<Integer, IntList> subordinates;
     private final Generator generator;
     private final HistoryManager history;
-    private final Repository<LocalDateTime, Integer> starts;
-    private final Repository<LocalDateTime, Integer> finishes;
+    private final Timeline timeline;
+    private final Repository<Integer, EpicProgress> progress;
+    private final Repository<Integer, TimeBounds> bounds;
+    private final EnumMap<Subordination, Set<Integer>> idsByType;
+    private final StatusIndex statuses;
+    private final TextIndex words;
 
     public RegularTaskManager(Repository<Integer, Task> tasks,
-                              Repository<Integer, ArrayList<Integer>> subordinates,
+                              Repository<Integer, IntList> subordinates,
                               Generator generator,
                               HistoryManager history,
-                              Repository<LocalDateTime, Integer> starts,
-                              Repository<LocalDateTime, Integer> finishes
+                              Timeline timeline
+    ) {
+        this(tasks, subordinates, generator, history, timeline, new InMemoryIntMap<>(), new InMemoryIntMap<>(),
+                LinkedHashSet::new);
+    }
+
+    // Для потокобезопасных наследников: внутренние хранилища прогресса и границ эпиков
+    // и множества id по типам задач передаются снаружи
+    protected RegularTaskManager(Repository<Integer, Task> tasks,
+                                 Repository<Integer, IntList> subordinates,
+                                 Generator generator,
+                                 HistoryManager history,
+                                 Timeline timeline,
+                                 Repository<Integer, EpicProgress> progress,
+                                 Repository<Integer, TimeBounds> bounds,
+                                 Supplier<Set<Integer>> idSet
     ) {
         this.tasks = tasks;
         this.subordinates = subordinates;
         this.generator = generator;
         this.history = history;
-        this.starts = starts;
-        this.finishes = finishes;
+        this.timeline = timeline;
+        this.progress = progress;
+        this.bounds = bounds;
+        this.idsByType = new EnumMap<>(Subordination.class);
+        for (Subordination subordination : Subordination.values()) {
+            idsByType.put(subordination, idSet.get());
+        }
+        this.statuses = new StatusIndex();
+        this.words = new TextIndex();
     }
 
     private void addToTimeline(Task task) {
-        Integer id = task.getId();
         LocalDateTime start = task.getStartTime();
-        starts.put(start, id);
-        LocalDateTime finish = start.plus(task.getDuration());
-        finishes.put(finish, id);
+        timeline.put(start, start.plus(task.getDuration()), task.getId());
     }
 
     private void deleteFromTimeline(Task task) {
-        LocalDateTime start = task.getStartTime();
-        starts.delete(start);
-        LocalDateTime finish = start.plus(task.getDuration());
-        finishes.delete(finish);
+        timeline.delete(task.getStartTime(), task.getId());
     }
 
     public List<Task> getPrioritizedTasks() {
-        if (starts.isEmpty()) return Collections.emptyList();
-        else return starts.values().stream().map(id -> tasks.get(id).copy()).toList();
+        if (timeline.isEmpty()) return Collections.emptyList();
+        else return timeline.values().stream().map(tasks::get).toList();
     }
 
-    private boolean isIntersectedByTime(Task task) {
-        LocalDateTime start = task.getStartTime();
-        LocalDateTime finish = start.plus(task.getDuration());
-        var startBeforeTaskEnds = starts.headMap(finish);
-        if (startBeforeTaskEnds.isEmpty()) return false;
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        if ((from == null) || (to == null) || !from.isBefore(to)) {
+            return Collections.emptyList();
+        }
+        return timeline.values(from, to).stream().map(tasks::get).toList();
+    }
 
-        var finishAfterTaskStarts = finishes.tailMap(start, false);
-        if (finishAfterTaskStarts.isEmpty()) return false;
+    @Override
+    public LocalDateTime findFreeSlot(LocalDateTime from, Duration duration) {
+        if ((from == null) || (duration == null) || duration.isNegative()) {
+            return null;
+        }
+        return timeline.findFreeSlot(from, duration);
+    }
 
-        HashSet<Integer> set = new HashSet<>(finishAfterTaskStarts.values());
-        return startBeforeTaskEnds.values().stream().anyMatch(set::contains);
+    private boolean isIntersectedByTime(Task task) {
+        LocalDateTime start = task.getStartTime();
+        return timeline.isIntersected(start, start.plus(task.getDuration()));
     }
 
     @Override
@@ -73,6 +111,11 @@ public class RegularTaskManager implements TaskManager {
         return history.getHistory();
     }
 
+    @Override
+    public List<Task> getHistory(int limit) {
+        return history.getHistory(limit);
+    }
+
     @Override
     public void clearHistory() {
         history.clear();
@@ -82,7 +125,12 @@ public class RegularTaskManager implements TaskManager {
     public void clear() {
         tasks.clear();
         subordinates.clear();
-        starts.clear();
+        timeline.clear();
+        progress.clear();
+        bounds.clear();
+        idsByType.values().forEach(Set::clear);
+        statuses.clear();
+        words.clear();
     }
 
     @Override
@@ -90,19 +138,10 @@ public class RegularTaskManager implements TaskManager {
         if (task == null) {
             return null;
         }
-        boolean isTimeDefined = task.isTimeDefined();
-        if (isTimeDefined && isIntersectedByTime(task)) {
+        if (task.isTimeDefined() && isIntersectedByTime(task)) {
             return null;
         }
-        Selftask copy = task.copy();
-        Integer id = generator.getId();
-        copy.setId(id);
-        copy.setStatus(Status.NEW);
-        tasks.put(id, copy);
-        if (isTimeDefined) {
-            addToTimeline(copy);
-        }
-        return copy.copy();
+        return insert(task, generator.getId()).copy();
     }
 
     @Override
@@ -110,13 +149,7 @@ public class RegularTaskManager implements TaskManager {
         if (task == null) {
             return null;
         }
-        Epictask copy = task.copy();
-        Integer id = generator.getId();
-        copy.setId(id);
-        copy.setStatus(Status.NEW);
-        tasks.put(id, copy);
-        subordinates.put(id, new ArrayList<>());
-        return copy.copy();
+        return insert(task, generator.getId()).copy();
     }
 
     @Override
@@ -124,121 +157,292 @@ public class RegularTaskManager implements TaskManager {
         if (task == null) {
             return null;
         }
-        boolean isTimeDefined = task.isTimeDefined();
-        if (isTimeDefined && isIntersectedByTime(task)) {
+        if (task.isTimeDefined() && isIntersectedByTime(task)) {
             return null;
         }
-        Integer epicId = task.getEpicId();
-        Task epicTask = tasks.get(epicId);
-        if ((epicTask == null) || (epicTask.getSubordination() != Subordination.EPIC)) {
+        if (!isEpic(task.getEpicId())) {
             return null;
         }
-        Subtask copy = task.copy();
-        Integer id = generator.getId();
+        Subtask copy = insert(task, generator.getId());
+        refreshEpic(copy.getEpicId());
+        return copy.copy();
+    }
+
+    private boolean isEpic(Integer id) {
+        Task epicTask = tasks.get(id);
+        return (epicTask != null) && (epicTask.getSubordination() == Subordination.EPIC);
+    }
+
+    // Сохранение новой задачи без проверок. Возвращается сохраненная (замороженная) версия
+    private <T extends Task> T store(T copy, Integer id) {
         copy.setId(id);
         copy.setStatus(Status.NEW);
+        copy.freeze();
         tasks.put(id, copy);
+        idsByType.get(copy.getSubordination()).add(id);
+        statuses.add(copy.getSubordination(), Status.NEW, id);
+        words.add(id, fieldsOf(copy));
+        return copy;
+    }
+
+    private Selftask insert(Selftask task, Integer id) {
+        Selftask copy = store(task.copy(), id);
+        if (copy.isTimeDefined()) {
+            addToTimeline(copy);
+        }
+        return copy;
+    }
+
+    private Epictask insert(Epictask task, Integer id) {
+        Epictask copy = store(task.copy(), id);
+        subordinates.put(id, new IntList());
+        progress.put(id, new EpicProgress());
+        bounds.put(id, new TimeBounds());
+        return copy;
+    }
+
+    // Эпик подзадачи не пересчитывается, это делает вызывающий метод
+    private Subtask insert(Subtask task, Integer id) {
+        Subtask copy = store(task.copy(), id);
+        Integer epicId = copy.getEpicId();
         subordinates.get(epicId).add(id);
-        if (isTimeDefined) {
+        progress.get(epicId).increment(Status.NEW);
+        if (copy.isTimeDefined()) {
             addToTimeline(copy);
-            updateEpicTimeWhenAddSub((Epictask) epicTask, task.getStartTime(), task.getDuration());
+            bounds.get(epicId).add(copy.getStartTime(), copy.getStartTime().plus(copy.getDuration()));
         }
-        return copy.copy();
+        return copy;
     }
 
-    private void updateEpicTimeWhenAddSub(Epictask epic, LocalDateTime subStart, Duration subDuration) {
-        if (!epic.isTimeDefined()) {
-            epic.setStartTime(subStart);
-            epic.setDuration(subDuration);
-            return;
+    // Восстановление сохраненной версии задачи, например, из журнала: задача сохраняется с тем же id и
+    // без проверки пересечений, генератор id сдвигается за восстановленный id.
+    // Подзадача восстанавливается после своего эпика, производные поля эпика пересчитываются
+    protected void restore(Task task) {
+        Integer id = task.getId();
+        Task oldTask = tasks.get(id);
+        if (oldTask == null) {
+            generator.skipTo(id);
+            oldTask = switch (task.getSubordination()) {
+                case SELF -> insert((Selftask) task, id);
+                case EPIC -> insert((Epictask) task, id);
+                case SUBTASK -> insert((Subtask) task, id);
+            };
+        } else {
+            if (isScheduled(oldTask)) {
+                deleteFromTimeline(oldTask);
+            }
+            if (isScheduled(task)) {
+                addToTimeline(task);
+            }
+        }
+        replace(oldTask, task);
+        if (oldTask.getSubordination() == Subordination.SUBTASK) {
+            refreshEpic(((Subtask) oldTask).getEpicId());
+        }
+    }
+
+    // Добавление набора задач: добавляются либо все задачи, либо ни одной (тогда возвращается null).
+    // Подзадачи набора могут ссылаться только на уже существующие эпики.
+    // Каждый затронутый эпик пересчитывается один раз на весь набор
+    @Override
+    public List<Task> addAll(List<? extends Task> batch) {
+        if ((batch == null) || !isValidForAdd(batch)) {
+            return null;
+        }
+        Set<Integer> epicIds = new LinkedHashSet<>();
+        List<Task> added = new ArrayList<>(batch.size());
+        for (Task task : batch) {
+            Task copy = switch (task.getSubordination()) {
+                case SELF -> insert((Selftask) task, generator.getId());
+                case EPIC -> insert((Epictask) task, generator.getId());
+                case SUBTASK -> {
+                    Subtask subtask = insert((Subtask) task, generator.getId());
+                    epicIds.add(subtask.getEpicId());
+                    yield subtask;
+                }
+            };
+            added.add(copy.copy());
+        }
+        epicIds.forEach(this::refreshEpic);
+        return added;
+    }
+
+    private boolean isValidForAdd(List<? extends Task> batch) {
+        List<Task> timed = new ArrayList<>();
+        for (Task task : batch) {
+            if (task == null) {
+                return false;
+            }
+            if ((task.getSubordination() == Subordination.SUBTASK) && !isEpic(((Subtask) task).getEpicId())) {
+                return false;
+            }
+            if (isScheduled(task)) {
+                timed.add(task);
+            }
         }
-        LocalDateTime epicStart = epic.getStartTime();
-        LocalDateTime epicFinish = epicStart.plus(epic.getDuration());
-        LocalDateTime subFinish = subStart.plus(subDuration);
-        if (epicStart.isAfter(subStart)) {
-            epicStart = subStart;
+        return !isBatchIntersected(timed);
+    }
+
+    // В таймлайн попадают только самостоятельные задачи и подзадачи с заданным временем
+    private boolean isScheduled(Task task) {
+        return (task.getSubordination() != Subordination.EPIC) && task.isTimeDefined();
+    }
+
+    // Проверка пересечений набора за один проход: интервалы набора упорядочиваются по началу и сравниваются
+    // с максимальным окончанием предыдущих (заметающая прямая), каждый интервал также проверяется по таймлайну.
+    // Пустой интервал пересекается только с интервалами, начавшимися строго раньше него, как и в таймлайне
+    private boolean isBatchIntersected(List<Task> timed) {
+        List<Task> sorted = timed.stream()
+                .sorted(Comparator.comparing(Task::getStartTime))
+                .toList();
+        LocalDateTime maxFinish = null;
+        LocalDateTime maxFinishBefore = null;
+        LocalDateTime previousStart = null;
+        for (Task task : sorted) {
+            LocalDateTime start = task.getStartTime();
+            LocalDateTime finish = start.plus(task.getDuration());
+            if ((previousStart != null) && start.isAfter(previousStart)) {
+                maxFinishBefore = maxFinish;
+            }
+            LocalDateTime bound = start.isBefore(finish) ? maxFinish : maxFinishBefore;
+            if ((bound != null) && start.isBefore(bound)) {
+                return true;
+            }
+            if (isIntersectedByTime(task)) {
+                return true;
+            }
+            if ((maxFinish == null) || finish.isAfter(maxFinish)) {
+                maxFinish = finish;
+            }
+            previousStart = start;
         }
-        if (epicFinish.isBefore(subFinish)) {
-            epicFinish = subFinish;
+        return false;
+    }
+
+    // Статус и время эпика вычисляются по его подзадачам. Если они изменились, в хранилище
+    // кладется новая версия эпика
+    private void refreshEpic(Integer epicId) {
+        Epictask epic = (Epictask) tasks.get(epicId);
+        Status status = progress.get(epicId).getStatus();
+        TimeBounds epicBounds = bounds.get(epicId);
+        LocalDateTime start = epicBounds.getStart();
+        Duration duration = (start == null) ? null : Duration.between(start, epicBounds.getFinish());
+        if ((status == epic.getStatus())
+                && Objects.equals(start, epic.getStartTime())
+                && Objects.equals(duration, epic.getDuration())) {
+            return;
         }
-        epic.setStartTime(epicStart);
-        epic.setDuration(Duration.between(epicStart, epicFinish));
+        statuses.move(Subordination.EPIC, epic.getStatus(), status, epicId);
+        Epictask updated = epic.copy();
+        updated.setStatus(status);
+        updated.setStartTime(start);
+        updated.setDuration(duration);
+        updated.freeze();
+        tasks.put(epicId, updated);
     }
 
     @Override
     public Task get(Integer id) {
+        return get(id, true);
+    }
+
+    @Override
+    public Task get(Integer id, boolean track) {
         if (id == null) return null;
-        Task original = tasks.get(id);
-        Task toReturn = null;
-        if (original != null) {
-            toReturn = original.copy();
-            history.add(toReturn);
+        Task task = tasks.get(id);
+        if ((task != null) && track) {
+            history.add(task);
         }
-        return toReturn;
+        return task;
     }
 
     @Override
     public Epictask getEpic(Integer id) {
-        if (id == null) {
-            return null;
-        }
-        Task task = get(id);
-        Epictask epictask = null;
-        if ((task != null) && (task.getSubordination() == Subordination.EPIC)) {
-            epictask = (Epictask) task;
-            history.add(epictask);
-        }
-        return epictask;
+        return getEpic(id, true);
+    }
+
+    @Override
+    public Epictask getEpic(Integer id, boolean track) {
+        return (Epictask) getOfType(id, Subordination.EPIC, track);
     }
 
     @Override
     public Selftask getSelftask(Integer id) {
-        if (id == null) {
-            return null;
-        }
-        Task task = get(id);
-        Selftask selftask = null;
-        if ((task != null) && (task.getSubordination() == Subordination.SELF)) {
-            selftask = (Selftask) task;
-            history.add(selftask);
-        }
-        return selftask;
+        return getSelftask(id, true);
+    }
+
+    @Override
+    public Selftask getSelftask(Integer id, boolean track) {
+        return (Selftask) getOfType(id, Subordination.SELF, track);
     }
 
     @Override
     public Subtask getSubtask(Integer id) {
+        return getSubtask(id, true);
+    }
+
+    @Override
+    public Subtask getSubtask(Integer id, boolean track) {
+        return (Subtask) getOfType(id, Subordination.SUBTASK, track);
+    }
+
+    // Задача заданного типа. В историю попадает один раз и только задача этого типа
+    private Task getOfType(Integer id, Subordination subordination, boolean track) {
         if (id == null) {
             return null;
         }
-        Task task = get(id);
-        Subtask subtask = null;
-        if ((task != null) && (task.getSubordination() == Subordination.SUBTASK)) {
-            subtask = (Subtask) task;
-            history.add(subtask);
+        Task task = tasks.get(id);
+        if ((task == null) || (task.getSubordination() != subordination)) {
+            return null;
         }
-        return subtask;
+        if (track) {
+            history.add(task);
+        }
+        return task;
     }
 
-
     @Override
     public Task delete(Integer taskId) {
         Task taskToDeleted = tasks.get(taskId);
         if (taskToDeleted == null) {
             return null;
         }
+        Integer epicId = remove(taskToDeleted);
+        if (epicId != null) {
+            refreshEpic(epicId);
+        }
+        return taskToDeleted;
+    }
+
+    // Удаление задачи без пересчета эпика. Для подзадачи возвращается id эпика, который нужно пересчитать
+    private Integer remove(Task taskToDeleted) {
+        Integer taskId = taskToDeleted.getId();
+        Integer epicToRefresh = null;
         switch (taskToDeleted.getSubordination()) {
             case SELF -> {
                 tasks.delete(taskId);
-                deleteFromTimeline(taskToDeleted);
+                if (taskToDeleted.isTimeDefined()) {
+                    deleteFromTimeline(taskToDeleted);
+                }
             }
             case Subordination.EPIC -> {
-                subordinates.get(taskId).forEach(tasks::delete);
+                for (int subId : subordinates.get(taskId).toArray()) {
+                    Task sub = tasks.delete(subId);
+                    idsByType.get(Subordination.SUBTASK).remove(subId);
+                    statuses.remove(Subordination.SUBTASK, sub.getStatus(), subId);
+                    words.remove(subId, fieldsOf(sub));
+                    if (sub.isTimeDefined()) {
+                        deleteFromTimeline(sub);
+                    }
+                }
                 subordinates.delete(taskId);
+                progress.delete(taskId);
+                bounds.delete(taskId);
                 tasks.delete(taskId);
             }
             case Subordination.SUBTASK -> {
                 Subtask subtaskToDelete = (Subtask) taskToDeleted;
-                Epictask epic = (Epictask) tasks.get(subtaskToDelete.getEpicId());
+                Task epic = tasks.get(subtaskToDelete.getEpicId());
                 Integer epicId = epic.getId();
                 if (epic.getSubordination() != Subordination.EPIC) {
                     throw new IllegalArgumentException("Incorrect EpicId");
@@ -249,54 +453,50 @@ public class RegularTaskManager implements TaskManager {
                 tasks.delete(taskId);
                 var listOfSubs = subordinates.get(epicId);
                 listOfSubs.remove(taskId);
-                if (listOfSubs.isEmpty()) {
-                    epic.setStatus(Status.NEW);
-                }
+                progress.get(epicId).decrement(taskToDeleted.getStatus());
                 if (taskToDeleted.isTimeDefined()) {
-                    updateEpicTimeWhenDeleteUpdateSub(epic, listOfSubs);
+                    LocalDateTime start = taskToDeleted.getStartTime();
+                    bounds.get(epicId).remove(start, start.plus(taskToDeleted.getDuration()));
                     deleteFromTimeline(taskToDeleted);
                 }
+                epicToRefresh = epicId;
             }
         }
-        return taskToDeleted;
+        idsByType.get(taskToDeleted.getSubordination()).remove(taskId);
+        statuses.remove(taskToDeleted.getSubordination(), taskToDeleted.getStatus(), taskId);
+        words.remove(taskId, fieldsOf(taskToDeleted));
+        return epicToRefresh;
     }
 
-    private void updateEpicTimeWhenDeleteUpdateSub(Epictask epic, ArrayList<Integer> subIds) {
-        if (subIds.isEmpty()) {
-            epic.switchOffTime();
-            return;
+    // Удаление набора задач: если хотя бы одной задачи нет, ничего не удаляется и возвращается null.
+    // Подзадачи удаляемого эпика удаляются вместе с ним, повторно они не удаляются и в результат не попадают
+    @Override
+    public List<Task> deleteAll(List<Integer> ids) {
+        if ((ids == null) || ids.stream().anyMatch(u -> (u == null) || (tasks.get(u) == null))) {
+            return null;
         }
-        Task first = tasks.get(subIds.getFirst());
-        LocalDateTime minStart = first.getStartTime();
-        LocalDateTime maxFinish = minStart.plus(first.getDuration());
-        for (int i = 1; i < subIds.size(); i++) {
-            Task sub = tasks.get(subIds.get(i));
-            LocalDateTime subStart = sub.getStartTime();
-            Duration subDuration = sub.getDuration();
-            LocalDateTime subFinish = subStart.plus(subDuration);
-            if (subStart.isBefore(minStart)) {
-                minStart = subStart;
+        Set<Integer> epicIds = new LinkedHashSet<>();
+        List<Task> deleted = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            Task task = tasks.get(id);
+            if (task == null) {
+                continue;
             }
-            if (subFinish.isAfter(maxFinish)) {
-                maxFinish = subFinish;
+            Integer epicId = remove(task);
+            if (epicId != null) {
+                epicIds.add(epicId);
             }
+            deleted.add(task);
         }
-        LocalDateTime epicStart = epic.getStartTime();
-        if (!epicStart.isEqual(minStart)) {
-            epicStart = minStart;
-        }
-        LocalDateTime epicFinish = epicStart.plus(epic.getDuration());
-        if (!epicFinish.isEqual(maxFinish)) {
-            epicFinish = maxFinish;
-        }
-        Duration epicDuration = Duration.between(epicStart, epicFinish);
-        epic.setStartTime(epicStart);
-        epic.setDuration(epicDuration);
+        epicIds.stream()
+                .filter(this::isEpic)
+                .forEach(this::refreshEpic);
+        return deleted;
     }
 
     @Override
     public List<Task> getAll() {
-        return tasks.values().stream().map(Task::copy).toList();
+        return List.copyOf(tasks.values());
     }
 
     @Override
@@ -306,8 +506,7 @@ public class RegularTaskManager implements TaskManager {
             return Collections.emptyList();
         }
         return subordinates.get(epic.getId()).stream()
-                .map(u -> (Subtask) tasks.get(u))
-                .map(Subtask::copy)
+                .mapToObj(u -> (Subtask) tasks.get(u))
                 .toList();
     }
 
@@ -338,18 +537,13 @@ public class RegularTaskManager implements TaskManager {
             return null;
         }
         Task oldTask = tasks.get(task.getId());
-        if (oldTask == null) {
+        if ((oldTask == null) || (oldTask.getSubordination() != Subordination.SELF)) {
             return null;
         }
         if (!isTaskIntersectedWhenUpdate(oldTask, task)) {
             return null;
         }
-        oldTask.setName(task.getName());
-        oldTask.setDescription(task.getDescription());
-        oldTask.setStatus(task.getStatus());
-        oldTask.setStartTime(task.getStartTime());
-        oldTask.setDuration(task.getDuration());
-        return (Selftask) oldTask.copy();
+        return (Selftask) replace(oldTask, task).copy();
     }
 
     private boolean isTaskIntersectedWhenUpdate(Task oldTask, Task task) {
@@ -391,12 +585,10 @@ public class RegularTaskManager implements TaskManager {
         }
         Integer id = task.getId();
         Task oldTask = tasks.get(id);
-        if (oldTask == null) {
+        if ((oldTask == null) || (oldTask.getSubordination() != Subordination.EPIC)) {
             return null;
         }
-        oldTask.setName(task.getName());
-        oldTask.setDescription(task.getDescription());
-        return (Epictask) oldTask.copy();
+        return (Epictask) replace(oldTask, task).copy();
     }
 
     @Override
@@ -406,69 +598,159 @@ public class RegularTaskManager implements TaskManager {
         }
         Integer id = task.getId();
         Task oldTask = tasks.get(id);
-        if (oldTask == null) {
+        if ((oldTask == null) || (oldTask.getSubordination() != Subordination.SUBTASK)) {
             return null;
         }
         if (!isTaskIntersectedWhenUpdate(oldTask, task)) {
             return null;
         }
+        Task updated = replace(oldTask, task);
+        refreshEpic(((Subtask) oldTask).getEpicId());
+        return (Subtask) updated.copy();
+    }
 
-        oldTask.setName(task.getName());
-        oldTask.setDescription(task.getDescription());
-        oldTask.setStatus(task.getStatus());
-        oldTask.setStartTime(task.getStartTime());
-        oldTask.setDuration(task.getDuration());
+    // Сохранение новой версии задачи по образцу. Таймлайн к этому моменту уже должен быть обновлен,
+    // эпик подзадачи не пересчитывается, это делает вызывающий метод
+    private Task replace(Task oldTask, Task task) {
+        Task updated = oldTask.copy();
+        updated.setName(task.getName());
+        updated.setDescription(task.getDescription());
+        if (oldTask.getSubordination() != Subordination.EPIC) {
+            updated.setStatus(task.getStatus());
+            updated.setStartTime(task.getStartTime());
+            updated.setDuration(task.getDuration());
+        }
+        updated.freeze();
+        tasks.put(updated.getId(), updated);
+        statuses.move(updated.getSubordination(), oldTask.getStatus(), updated.getStatus(), updated.getId());
+        words.update(updated.getId(), fieldsOf(oldTask), fieldsOf(updated));
+
+        if (oldTask.getSubordination() == Subordination.SUBTASK) {
+            Integer epicId = ((Subtask) oldTask).getEpicId();
+            TimeBounds epicBounds = bounds.get(epicId);
+            if (oldTask.isTimeDefined()) {
+                epicBounds.remove(oldTask.getStartTime(), oldTask.getStartTime().plus(oldTask.getDuration()));
+            }
+            if (updated.isTimeDefined()) {
+                epicBounds.add(updated.getStartTime(), updated.getStartTime().plus(updated.getDuration()));
+            }
+            EpicProgress epicProgress = progress.get(epicId);
+            epicProgress.decrement(oldTask.getStatus());
+            epicProgress.increment(updated.getStatus());
+        }
+        return updated;
+    }
 
-        Integer epicId = task.getEpicId();
-        Epictask epic = (Epictask) tasks.get(epicId);
-        updateEpicTimeWhenDeleteUpdateSub(epic, subordinates.get(epicId));
-
-        Status status = task.getStatus();
-        switch (status) {
-            case Status.NEW -> {
-                if (isAllSubsNew(epic)) {
-                    epic.setStatus(Status.NEW);
-                } else {
-                    epic.setStatus(Status.IN_PROGRESS);
-                }
+    // Обновление набора задач по образцам: обновляются либо все задачи, либо ни одной (тогда возвращается null).
+    // Тип каждого образца должен совпадать с типом сохраненной задачи, id в наборе не повторяются.
+    // Старые интервалы задач набора на время проверки убираются из таймлайна, чтобы задачи набора
+    // могли меняться временем друг с другом
+    @Override
+    public List<Task> updateAll(List<? extends Task> batch) {
+        if (batch == null) {
+            return null;
+        }
+        List<Task> oldTasks = new ArrayList<>(batch.size());
+        Set<Integer> ids = new HashSet<>();
+        for (Task task : batch) {
+            if ((task == null) || (task.getId() == null) || !ids.add(task.getId())) {
+                return null;
             }
-            case Status.IN_PROGRESS -> epic.setStatus(Status.IN_PROGRESS);
-            case Status.DONE -> {
-                if (isAllSubsDone(epic)) {
-                    epic.setStatus(Status.DONE);
-                } else {
-                    epic.setStatus(Status.IN_PROGRESS);
-                }
+            Task oldTask = tasks.get(task.getId());
+            if ((oldTask == null) || (oldTask.getSubordination() != task.getSubordination())) {
+                return null;
             }
-            default -> throw new IllegalArgumentException("Некорректный статус задачи");
+            oldTasks.add(oldTask);
+        }
+        List<Task> released = oldTasks.stream().filter(this::isScheduled).toList();
+        List<Task> timed = batch.stream().filter(this::isScheduled).map(u -> (Task) u).toList();
+        released.forEach(this::deleteFromTimeline);
+        if (isBatchIntersected(timed)) {
+            released.forEach(this::addToTimeline);
+            return null;
         }
-        return (Subtask) oldTask.copy();
+        timed.forEach(this::addToTimeline);
+
+        Set<Integer> epicIds = new LinkedHashSet<>();
+        List<Task> updated = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Task oldTask = oldTasks.get(i);
+            updated.add(replace(oldTask, batch.get(i)).copy());
+            if (oldTask.getSubordination() == Subordination.SUBTASK) {
+                epicIds.add(((Subtask) oldTask).getEpicId());
+            }
+        }
+        epicIds.forEach(this::refreshEpic);
+        return updated;
     }
 
     public List<Task> getAllSelftasks() {
-        return getAll().stream()
-                .filter(u -> u.getSubordination() == Subordination.SELF)
-                .toList();
+        return getAllOfType(Subordination.SELF);
     }
 
     public List<Task> getAllSubtasks() {
-        return getAll().stream()
-                .filter(u -> u.getSubordination() == Subordination.SUBTASK)
-                .toList();
+        return getAllOfType(Subordination.SUBTASK);
     }
 
     public List<Task> getAllEpictasks() {
-        return getAll().stream()
-                .filter(u -> u.getSubordination() == Subordination.EPIC)
+        return getAllOfType(Subordination.EPIC);
+    }
+
+    private List<Task> getAllOfType(Subordination subordination) {
+        return idsByType.get(subordination).stream()
+                .map(tasks::get)
+                .toList();
+    }
+
+    @Override
+    public List<Task> getAllByStatus(Subordination subordination, Status status) {
+        if ((subordination == null) || (status == null)) {
+            return Collections.emptyList();
+        }
+        return statuses.getIds(subordination, status).stream()
+                .map(tasks::get)
+                .filter(Objects::nonNull)
                 .toList();
     }
 
-    private boolean isAllSubsNew(Epictask epic) {
-        return subordinates.get(epic.getId()).stream().map(u -> tasks.get(u).getStatus()).allMatch(Status.NEW::equals);
+    @Override
+    public int getCountByStatus(Subordination subordination, Status status) {
+        return ((subordination == null) || (status == null)) ? 0 : statuses.getCount(subordination, status);
+    }
+
+    @Override
+    public int getCountByStatus(Status status) {
+        return (status == null) ? 0 : statuses.getCount(status);
     }
 
-    private boolean isAllSubsDone(Epictask epic) {
-        return subordinates.get(epic.getId()).stream().map(u -> tasks.get(u).getStatus()).allMatch(Status.DONE::equals);
+    // Текст задачи для полнотекстового поиска
+    // Поля задачи для поиска по словам; отсутствующие название или описание не индексируются
+    private static String[] fieldsOf(Task task) {
+        return new String[]{task.getName(), task.getDescription()};
     }
-}
 
+    @Override
+    public List<Task> search(String query, int limit) {
+        if (query == null) {
+            return Collections.emptyList();
+        }
+        return words.search(query, limit).stream()
+                .map(tasks::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public EpicProgress getEpicProgress(Integer id) {
+        if (id == null) {
+            return null;
+        }
+        EpicProgress epicProgress = progress.get(id);
+        return (epicProgress == null) ? null : epicProgress.copy();
+    }
+
+    @Override
+    public void close() {
+        history.close();
+    }
+}
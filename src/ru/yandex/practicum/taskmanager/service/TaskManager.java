@@ -1,15 +1,23 @@
 package ru.yandex.practicum.taskmanager.service;
 
+import ru.yandex.practicum.taskmanager.tasks.EpicProgress;
 import ru.yandex.practicum.taskmanager.tasks.Epictask;
 import ru.yandex.practicum.taskmanager.tasks.Selftask;
+import ru.yandex.practicum.taskmanager.tasks.Status;
+import ru.yandex.practicum.taskmanager.tasks.Subordination;
 import ru.yandex.practicum.taskmanager.tasks.Subtask;
 import ru.yandex.practicum.taskmanager.tasks.Task;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 
-public interface TaskManager {
+// Менеджер нужно закрыть после работы, чтобы остановить фоновую запись истории и журналов
+public interface TaskManager extends AutoCloseable {
     List<Task> getHistory();
 
+    List<Task> getHistory(int limit);
+
     void clearHistory();
 
     void clear();
@@ -28,6 +36,15 @@ public interface TaskManager {
 
     Subtask getSubtask(Integer id);
 
+    // Чтение задачи; при track == false просмотр не записывается в историю
+    Task get(Integer id, boolean track);
+
+    Epictask getEpic(Integer id, boolean track);
+
+    Selftask getSelftask(Integer id, boolean track);
+
+    Subtask getSubtask(Integer id, boolean track);
+
     Task delete(Integer id);
 
     List<Task> getAll();
@@ -44,13 +61,42 @@ public interface TaskManager {
 
     Task update(Task task);
 
+    // Пакетные операции: выполняются целиком или не выполняются вовсе (тогда возвращается null)
+    List<Task> addAll(List<? extends Task> tasks);
+
+    List<Task> updateAll(List<? extends Task> tasks);
+
+    List<Task> deleteAll(List<Integer> ids);
+
     List<Task> getPrioritizedTasks();
 
+    // Задачи, пересекающиеся по времени с [from, to), в порядке времени начала
+    List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to);
+
+    // Самое раннее начало свободного от задач окна длиной duration не раньше from
+    LocalDateTime findFreeSlot(LocalDateTime from, Duration duration);
+
     List<Task> getAllSelftasks();
 
     List<Task> getAllSubtasks();
 
     List<Task> getAllEpictasks();
 
+    // Задачи указанного типа в статусе status и их количество, без обхода хранилища
+    List<Task> getAllByStatus(Subordination subordination, Status status);
+
+    int getCountByStatus(Subordination subordination, Status status);
+
+    int getCountByStatus(Status status);
+
+    // Задачи, в названии или описании которых есть все слова запроса, в порядке id, не больше limit
+    List<Task> search(String query, int limit);
+
+    // Количество подзадач эпика в каждом статусе
+    EpicProgress getEpicProgress(Integer id);
+
+    @Override
+    void close();
+
 
 }
@@ -0,0 +1,56 @@
+package ru.yandex.practicum.taskmanager.tasks;
+
+// Количество подзадач эпика в каждом статусе. Статус эпика вычисляется по счетчикам за O(1).
+public class EpicProgress {
+    private final int[] counts;
+
+    public EpicProgress() {
+        this.counts = new int[Status.values().length];
+    }
+
+    public void increment(Status status) {
+        counts[status.ordinal()]++;
+    }
+
+    public void decrement(Status status) {
+        counts[status.ordinal()]--;
+    }
+
+    public int getCount(Status status) {
+        return counts[status.ordinal()];
+    }
+
+    public int getTotal() {
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    public Status getStatus() {
+        int total = getTotal();
+        if (total == getCount(Status.NEW)) {
+            return Status.NEW;
+        }
+        if (total == getCount(Status.DONE)) {
+            return Status.DONE;
+        }
+        return Status.IN_PROGRESS;
+    }
+
+    public EpicProgress copy() {
+        EpicProgress copy = new EpicProgress();
+        System.arraycopy(counts, 0, copy.counts, 0, counts.length);
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return "{" +
+                "new=" + getCount(Status.NEW) +
+                ", inProgress=" + getCount(Status.IN_PROGRESS) +
+                ", done=" + getCount(Status.DONE) +
+                '}';
+    }
+}
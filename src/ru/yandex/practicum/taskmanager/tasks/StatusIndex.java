@@ -0,0 +1,77 @@
+package ru.yandex.practicum.taskmanager.tasks;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Индекс задач по статусу: для каждого типа задачи и статуса хранятся множество id и счетчик.
+// Количество задач в статусе возвращается за O(1), без обхода хранилища.
+// Структуры потокобезопасны, согласованность с хранилищем обеспечивает менеджер задач
+public class StatusIndex {
+    private static final int STATUSES_NUMBER = Status.values().length;
+    private final EnumMap<Subordination, EnumMap<Status, NavigableSet<Integer>>> ids;
+    private final AtomicIntegerArray counts;
+
+    public StatusIndex() {
+        this.ids = new EnumMap<>(Subordination.class);
+        for (Subordination subordination : Subordination.values()) {
+            EnumMap<Status, NavigableSet<Integer>> byStatus = new EnumMap<>(Status.class);
+            for (Status status : Status.values()) {
+                byStatus.put(status, new ConcurrentSkipListSet<>());
+            }
+            ids.put(subordination, byStatus);
+        }
+        this.counts = new AtomicIntegerArray(Subordination.values().length * STATUSES_NUMBER);
+    }
+
+    private static int index(Subordination subordination, Status status) {
+        return subordination.ordinal() * STATUSES_NUMBER + status.ordinal();
+    }
+
+    public void add(Subordination subordination, Status status, Integer id) {
+        if (ids.get(subordination).get(status).add(id)) {
+            counts.incrementAndGet(index(subordination, status));
+        }
+    }
+
+    public void remove(Subordination subordination, Status status, Integer id) {
+        if (ids.get(subordination).get(status).remove(id)) {
+            counts.decrementAndGet(index(subordination, status));
+        }
+    }
+
+    public void move(Subordination subordination, Status from, Status to, Integer id) {
+        if (from != to) {
+            remove(subordination, from, id);
+            add(subordination, to, id);
+        }
+    }
+
+    // id задач в порядке возрастания, только для чтения
+    public NavigableSet<Integer> getIds(Subordination subordination, Status status) {
+        return Collections.unmodifiableNavigableSet(ids.get(subordination).get(status));
+    }
+
+    public int getCount(Subordination subordination, Status status) {
+        return counts.get(index(subordination, status));
+    }
+
+    public int getCount(Status status) {
+        int total = 0;
+        for (Subordination subordination : Subordination.values()) {
+            total += getCount(subordination, status);
+        }
+        return total;
+    }
+
+    public void clear() {
+        for (EnumMap<Status, NavigableSet<Integer>> byStatus : ids.values()) {
+            byStatus.values().forEach(NavigableSet::clear);
+        }
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+    }
+}
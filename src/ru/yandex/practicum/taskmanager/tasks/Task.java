@@ -15,6 +15,9 @@ public abstract class Task {
     protected Status status;
     protected LocalDateTime startTime;
     protected Duration duration;
+    // Замороженную задачу нельзя изменить, поэтому ее можно отдавать наружу без копирования.
+    // Для изменения нужно получить копию методом copy()
+    protected transient boolean frozen;
 
     public Task(String name, String description, LocalDateTime startTime, Duration duration) {
         this.id = null;
@@ -34,6 +37,7 @@ public abstract class Task {
     }
 
     public void setDuration(Duration duration) {
+        checkNotFrozen();
         this.duration = duration;
     }
 
@@ -42,6 +46,7 @@ public abstract class Task {
     }
 
     public void setStartTime(LocalDateTime startTime) {
+        checkNotFrozen();
         this.startTime = startTime;
     }
 
@@ -52,6 +57,7 @@ public abstract class Task {
     }
 
     public void setId(Integer id) {
+        checkNotFrozen();
         this.id = id;
     }
 
@@ -60,6 +66,7 @@ public abstract class Task {
     }
 
     public void setName(String name) {
+        checkNotFrozen();
         this.name = name;
     }
 
@@ -68,6 +75,7 @@ public abstract class Task {
     }
 
     public void setDescription(String description) {
+        checkNotFrozen();
         this.description = description;
     }
 
@@ -76,6 +84,7 @@ public abstract class Task {
     }
 
     public void setStatus(Status status) {
+        checkNotFrozen();
         this.status = status;
     }
 
@@ -99,6 +108,20 @@ public abstract class Task {
         }
     }
 
+    public void freeze() {
+        frozen = true;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new UnsupportedOperationException("Frozen task can't be changed, make a copy first!");
+        }
+    }
+
     public abstract Task copy();
 
     public String[] convertToStringArray() {
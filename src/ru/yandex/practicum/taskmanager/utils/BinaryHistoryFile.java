@@ -0,0 +1,157 @@
+package ru.yandex.practicum.taskmanager.utils;
+
+import ru.yandex.practicum.taskmanager.exceptions.ManagerSaveException;
+import ru.yandex.practicum.taskmanager.tasks.*;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Двоичный файл истории с записями фиксированного размера, читается и пишется через отображение в память.
+// Заголовок: признак формата, версия, число записей. Затем записи от последней просмотренной задачи к первой:
+// id, тип, статус, флаги наличия времени, время начала в секундах, продолжительность в секундах, id эпика
+// (-1, если задача не подзадача), смещения и длины названия и описания в области строк (длина -1 - null).
+// Область строк в UTF-8 идет сразу за записями. Поля задачи читаются прямо из отображенного файла,
+// без разбора текста; время хранится с точностью до секунды, как и в CSV-файле
+public class BinaryHistoryFile {
+    private static final int MAGIC = 0x48495354;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 3 * Integer.BYTES;
+    private static final int RECORD_SIZE = 44;
+    private static final byte HAS_START = 1;
+    private static final byte HAS_DURATION = 2;
+    private static final Subordination[] SUBORDINATIONS = Subordination.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private BinaryHistoryFile() {
+    }
+
+    public static void write(Path file, List<Task> history) {
+        byte[][] names = new byte[history.size()][];
+        byte[][] descriptions = new byte[history.size()][];
+        long stringsSize = 0;
+        for (int i = 0; i < history.size(); i++) {
+            names[i] = bytesOf(history.get(i).getName());
+            descriptions[i] = bytesOf(history.get(i).getDescription());
+            stringsSize += lengthOf(names[i]) + lengthOf(descriptions[i]);
+        }
+        long stringsStart = HEADER_SIZE + (long) RECORD_SIZE * history.size();
+        long size = stringsStart + stringsSize;
+        if (size > Integer.MAX_VALUE) {
+            throw new ManagerSaveException(String.format("Task history is too large for file %s!", file));
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(history.size());
+            int stringOffset = 0;
+            for (int i = 0; i < history.size(); i++) {
+                Task task = history.get(i);
+                LocalDateTime start = task.getStartTime();
+                Duration duration = task.getDuration();
+                byte flags = (byte) (((start != null) ? HAS_START : 0) | ((duration != null) ? HAS_DURATION : 0));
+                buffer.putInt(task.getId())
+                        .put((byte) task.getSubordination().ordinal())
+                        .put((byte) task.getStatus().ordinal())
+                        .put(flags)
+                        .put((byte) 0)
+                        .putLong((start != null) ? start.toEpochSecond(ZoneOffset.UTC) : 0)
+                        .putLong((duration != null) ? duration.toSeconds() : 0)
+                        .putInt((task instanceof Subtask subtask) ? subtask.getEpicId() : -1);
+                stringOffset = putString(buffer, names[i], stringsStart, stringOffset);
+                stringOffset = putString(buffer, descriptions[i], stringsStart, stringOffset);
+            }
+            buffer.force();
+        } catch (IOException e) {
+            throw new ManagerSaveException(String.format("Error writing the task history file %s!", file), e);
+        }
+    }
+
+    // Задачи в порядке записи в файле, от последней просмотренной к первой
+    public static void read(Path file, Consumer<Task> consumer) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if ((buffer.remaining() < HEADER_SIZE) || (buffer.getInt() != MAGIC) || (buffer.getInt() != VERSION)) {
+                throw new ManagerSaveException(
+                        String.format("%s is not a task history file or corrupted! Header is absent", file));
+            }
+            int count = buffer.getInt();
+            long stringsStart = HEADER_SIZE + (long) RECORD_SIZE * count;
+            if ((count < 0) || (stringsStart > buffer.limit())) {
+                throw new ManagerSaveException(String.format("File %s is corrupted! Not enough records", file));
+            }
+            for (int i = 0; i < count; i++) {
+                consumer.accept(readTask(buffer, (int) stringsStart));
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException(String.format("File access error for task history %s!", file), e);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new ManagerSaveException(String.format("File %s is corrupted! Error during unpacking", file), e);
+        }
+    }
+
+    private static Task readTask(MappedByteBuffer buffer, int stringsStart) {
+        int id = buffer.getInt();
+        Subordination subordination = SUBORDINATIONS[buffer.get()];
+        Status status = STATUSES[buffer.get()];
+        byte flags = buffer.get();
+        buffer.get();
+        long startSeconds = buffer.getLong();
+        long durationSeconds = buffer.getLong();
+        int epicId = buffer.getInt();
+        String name = getString(buffer, stringsStart, buffer.getInt(), buffer.getInt());
+        String description = getString(buffer, stringsStart, buffer.getInt(), buffer.getInt());
+        LocalDateTime start = ((flags & HAS_START) != 0)
+                ? LocalDateTime.ofEpochSecond(startSeconds, 0, ZoneOffset.UTC)
+                : null;
+        Duration duration = ((flags & HAS_DURATION) != 0) ? Duration.ofSeconds(durationSeconds) : null;
+        Task task = switch (subordination) {
+            case SELF -> new Selftask(name, description, start, duration);
+            case EPIC -> {
+                Epictask epic = new Epictask(name, description, null, null);
+                epic.setStartTime(start);
+                epic.setDuration(duration);
+                yield epic;
+            }
+            case SUBTASK -> new Subtask(name, description, start, duration, epicId);
+        };
+        task.setId(id);
+        task.setStatus(status);
+        return task;
+    }
+
+    private static byte[] bytesOf(String text) {
+        return (text == null) ? null : text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int lengthOf(byte[] bytes) {
+        return (bytes == null) ? 0 : bytes.length;
+    }
+
+    private static int putString(MappedByteBuffer buffer, byte[] bytes, long stringsStart, int offset) {
+        buffer.putInt(offset).putInt((bytes == null) ? -1 : bytes.length);
+        if (bytes == null) {
+            return offset;
+        }
+        buffer.put((int) stringsStart + offset, bytes);
+        return offset + bytes.length;
+    }
+
+    private static String getString(MappedByteBuffer buffer, int stringsStart, int offset, int length) {
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(stringsStart + offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,89 @@
+package ru.yandex.practicum.taskmanager.utils;
+
+import ru.yandex.practicum.taskmanager.tasks.*;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+// Двоичное представление задачи для журнала изменений и снимков.
+// Порядок полей: тип, id, название, описание, статус, время начала, продолжительность, для подзадачи - id эпика.
+// Строки и время могут отсутствовать: строка записывается длиной -1, время - признаком отсутствия
+public class BinaryTaskFormat {
+    private static final Subordination[] SUBORDINATIONS = Subordination.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private BinaryTaskFormat() {
+    }
+
+    public static void write(DataOutput out, Task task) throws IOException {
+        out.writeByte(task.getSubordination().ordinal());
+        out.writeInt(task.getId());
+        writeString(out, task.getName());
+        writeString(out, task.getDescription());
+        out.writeByte(task.getStatus().ordinal());
+        LocalDateTime start = task.getStartTime();
+        out.writeBoolean(start != null);
+        if (start != null) {
+            out.writeLong(start.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(start.getNano());
+        }
+        Duration duration = task.getDuration();
+        out.writeBoolean(duration != null);
+        if (duration != null) {
+            out.writeLong(duration.getSeconds());
+            out.writeInt(duration.getNano());
+        }
+        if (task.getSubordination() == Subordination.SUBTASK) {
+            out.writeInt(((Subtask) task).getEpicId());
+        }
+    }
+
+    public static Task read(DataInput in) throws IOException {
+        Subordination subordination = SUBORDINATIONS[in.readByte()];
+        int id = in.readInt();
+        String name = readString(in);
+        String description = readString(in);
+        Status status = STATUSES[in.readByte()];
+        LocalDateTime start = in.readBoolean()
+                ? LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC)
+                : null;
+        Duration duration = in.readBoolean()
+                ? Duration.ofSeconds(in.readLong(), in.readInt())
+                : null;
+        Task task = switch (subordination) {
+            case SELF -> new Selftask(name, description, start, duration);
+            case EPIC -> new Epictask(name, description, null, null);
+            case SUBTASK -> new Subtask(name, description, start, duration, in.readInt());
+        };
+        task.setId(id);
+        task.setStatus(status);
+        task.setStartTime(start);
+        task.setDuration(duration);
+        return task;
+    }
+
+    private static void writeString(DataOutput out, String text) throws IOException {
+        if (text == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,128 @@
+package ru.yandex.practicum.taskmanager.utils;
+
+import ru.yandex.practicum.taskmanager.exceptions.ManagerSaveException;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Потокобезопасный генератор, выдающий id блоками.
+// Общий счетчик сдвигается атомарно сразу на blockSize, а затем поток выдает id из своего блока без обращения
+// к общим данным. Поэтому id разных потоков не упорядочены по времени выдачи, а после skipTo и перезапуска
+// в последовательности остаются пропуски.
+// Если задан файл highWaterFile, в нем хранится граница: id не больше нее могли быть выданы. Граница
+// записывается на диск с запасом в RESERVE_BLOCKS блоков, до выдачи первого блока за старой границей,
+// поэтому после перезапуска выдача продолжается за границей и id не повторяются, даже если задачи
+// с последними id не попали в хранилище
+public class BlockGenerator implements Generator {
+    private static final int RESERVE_BLOCKS = 64;
+    private final int blockSize;
+    private final Path highWaterFile;
+    private final AtomicLong next;
+    private final AtomicLong skipped;
+    private final ThreadLocal<Block> blocks;
+    private volatile long reserved;
+
+    // Еще не выданные id потока: от next включительно до end не включительно
+    private static class Block {
+        long next;
+        long end;
+    }
+
+    public BlockGenerator(int start, int blockSize) {
+        this(start, blockSize, null);
+    }
+
+    public BlockGenerator(int start, int blockSize, Path highWaterFile) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException(String.format("Block size must be positive, but was %d", blockSize));
+        }
+        this.blockSize = blockSize;
+        this.highWaterFile = highWaterFile;
+        long first = start;
+        if (highWaterFile != null) {
+            reserved = readHighWater(highWaterFile, start - 1L);
+            first = Math.max(first, reserved + 1);
+        } else {
+            reserved = Long.MAX_VALUE;
+        }
+        this.next = new AtomicLong(first);
+        this.skipped = new AtomicLong(first - 1);
+        this.blocks = ThreadLocal.withInitial(Block::new);
+    }
+
+    @Override
+    public Integer getId() {
+        Block block = blocks.get();
+        if ((block.next >= block.end) || (block.next <= skipped.get())) {
+            allocate(block);
+        }
+        return (int) block.next++;
+    }
+
+    @Override
+    public void skipTo(Integer usedId) {
+        skipped.accumulateAndGet(usedId, Math::max);
+        next.accumulateAndGet(usedId + 1L, Math::max);
+    }
+
+    private void allocate(Block block) {
+        long start;
+        long floor;
+        do {
+            start = next.getAndAdd(blockSize);
+            floor = skipped.get();
+        } while (start + blockSize - 1 <= floor);
+        long end = start + blockSize;
+        if (end - 1 > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Task ids are exhausted");
+        }
+        if (end - 1 > reserved) {
+            reserve(end - 1);
+        }
+        block.next = Math.max(start, floor + 1);
+        block.end = end;
+    }
+
+    private synchronized void reserve(long lastId) {
+        if (lastId <= reserved) {
+            return;
+        }
+        long mark = Math.min(Integer.MAX_VALUE, lastId + (long) blockSize * RESERVE_BLOCKS);
+        writeHighWater(highWaterFile, mark);
+        reserved = mark;
+    }
+
+    private static long readHighWater(Path file, long absent) {
+        if (!Files.exists(file)) {
+            return absent;
+        }
+        try {
+            return Long.parseLong(Files.readString(file, StandardCharsets.UTF_8).trim());
+        } catch (IOException e) {
+            throw new ManagerSaveException(String.format("Unable to read id high-water mark %s!", file), e);
+        } catch (NumberFormatException e) {
+            throw new ManagerSaveException(String.format("File %s is corrupted! High-water mark is absent", file), e);
+        }
+    }
+
+    // Граница заменяется атомарно, поэтому при сбое в файле остается старая или новая граница
+    private static void writeHighWater(Path file, long mark) {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileOutputStream output = new FileOutputStream(temporary.toFile())) {
+            output.write(Long.toString(mark).concat("\n").getBytes(StandardCharsets.UTF_8));
+            output.getFD().sync();
+        } catch (IOException e) {
+            throw new ManagerSaveException(String.format("Unable to write id high-water mark %s!", temporary), e);
+        }
+        try {
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new ManagerSaveException(String.format("Unable to replace id high-water mark %s!", file), e);
+        }
+    }
+}
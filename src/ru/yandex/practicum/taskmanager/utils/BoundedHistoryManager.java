@@ -0,0 +1,84 @@
+package ru.yandex.practicum.taskmanager.utils;
+
+import ru.yandex.practicum.taskmanager.tasks.Task;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+
+// История ограниченного размера. Когда задач становится больше capacity, удаляется задача, которую
+// смотрели раньше всех (LRU). Если задан timeToLive, задачи, которые не смотрели дольше этого времени,
+// удаляются из истории при следующем обращении к ней. Самая давняя задача всегда в конце списка,
+// поэтому и вытеснение, и удаление устаревших задач стоят O(1) на задачу
+public class BoundedHistoryManager extends LinkedHashHistoryManager {
+    private final int capacity;
+    private final Duration timeToLive;
+    private final Clock clock;
+    private final HashMap<Integer, Long> accessed;
+
+    public BoundedHistoryManager(int capacity) {
+        this(capacity, null, Clock.systemUTC());
+    }
+
+    // timeToLive == null - время хранения задач в истории не ограничено
+    public BoundedHistoryManager(int capacity, Duration timeToLive, Clock clock) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("History capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.timeToLive = timeToLive;
+        this.clock = clock;
+        this.accessed = new HashMap<>();
+    }
+
+    @Override
+    public void add(Task item) {
+        if (item == null) {
+            return;
+        }
+        removeExpired();
+        super.add(item);
+        if (timeToLive != null) {
+            accessed.put(item.getId(), clock.millis());
+        }
+        while (size() > capacity) {
+            remove(getLast().getId());
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        super.remove(id);
+        accessed.remove(id);
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        removeExpired();
+        return super.getHistory();
+    }
+
+    @Override
+    public List<Task> getHistory(int limit) {
+        removeExpired();
+        return super.getHistory(limit);
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        accessed.clear();
+    }
+
+    private void removeExpired() {
+        if (timeToLive == null) {
+            return;
+        }
+        long oldest = clock.millis() - timeToLive.toMillis();
+        Task last;
+        while (((last = getLast()) != null) && (accessed.get(last.getId()) < oldest)) {
+            remove(last.getId());
+        }
+    }
+}
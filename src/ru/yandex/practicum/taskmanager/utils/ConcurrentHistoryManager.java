@@ -0,0 +1,179 @@
+package ru.yandex.practicum.taskmanager.utils;
+
+import ru.yandex.practicum.taskmanager.tasks.Task;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Потокобезопасная история, в которой просмотры задач не блокируют друг друга.
+// Просмотр только записывается в один из кольцевых буферов (буфер выбирается по id потока), а в упорядоченную
+// историю history буферы переносятся под блокировкой: в фоне, когда в буфере накопилось DRAIN_THRESHOLD
+// записей, и перед каждым чтением, удалением и очисткой истории. Поэтому getHistory() всегда учитывает
+// все просмотры, записанные до вызова. Просмотры одного потока попадают в историю в порядке вызовов,
+// просмотры разных потоков, сделанные одновременно, могут поменяться местами.
+// Если буфер заполнен, поток сам переносит буферы в историю, так что просмотры не теряются
+public class ConcurrentHistoryManager implements HistoryManager {
+    private static final int BUFFER_SIZE = 256;
+    private static final int DRAIN_THRESHOLD = 32;
+    private final HistoryManager history;
+    private final Executor executor;
+    private final Buffer[] buffers;
+    private final ReentrantLock drainLock;
+    private final AtomicBoolean drainScheduled;
+
+    public ConcurrentHistoryManager(HistoryManager history) {
+        this(history, ForkJoinPool.commonPool());
+    }
+
+    public ConcurrentHistoryManager(HistoryManager history, Executor executor) {
+        this.history = history;
+        this.executor = executor;
+        int stripes = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1;
+        this.buffers = new Buffer[stripes];
+        for (int i = 0; i < stripes; i++) {
+            buffers[i] = new Buffer();
+        }
+        this.drainLock = new ReentrantLock();
+        this.drainScheduled = new AtomicBoolean();
+    }
+
+    @Override
+    public void add(Task item) {
+        if (item == null) {
+            return;
+        }
+        Buffer buffer = buffers[(int) (mix(Thread.currentThread().threadId()) & (buffers.length - 1))];
+        while (!buffer.offer(item)) {
+            drain();
+        }
+        if ((buffer.size() >= DRAIN_THRESHOLD) && drainScheduled.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                drainScheduled.set(false);
+                drain();
+            });
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        drainLock.lock();
+        try {
+            drainAll();
+            history.remove(id);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        drainLock.lock();
+        try {
+            drainAll();
+            return history.getHistory();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory(int limit) {
+        drainLock.lock();
+        try {
+            drainAll();
+            return history.getHistory(limit);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        drainLock.lock();
+        try {
+            drainAll();
+            history.clear();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    // Перед закрытием все записанные просмотры переносятся в историю
+    @Override
+    public void close() {
+        drainLock.lock();
+        try {
+            drainAll();
+            history.close();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    private void drain() {
+        drainLock.lock();
+        try {
+            drainAll();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    private void drainAll() {
+        for (Buffer buffer : buffers) {
+            buffer.drainTo(history);
+        }
+    }
+
+    private static long mix(long threadId) {
+        long hash = threadId * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 32);
+    }
+
+    // Кольцевой буфер для нескольких писателей и одного читателя (читатель работает под drainLock).
+    // Писатель занимает ячейку сдвигом tail, затем записывает в нее задачу; читатель останавливается
+    // на ячейке, которая уже занята, но еще не записана
+    private static class Buffer {
+        private final AtomicReferenceArray<Task> slots = new AtomicReferenceArray<>(BUFFER_SIZE);
+        private final AtomicLong head = new AtomicLong();
+        private final AtomicLong tail = new AtomicLong();
+
+        boolean offer(Task task) {
+            while (true) {
+                long position = tail.get();
+                if (position - head.get() >= BUFFER_SIZE) {
+                    return false;
+                }
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.set((int) (position & (BUFFER_SIZE - 1)), task);
+                    return true;
+                }
+            }
+        }
+
+        long size() {
+            return tail.get() - head.get();
+        }
+
+        void drainTo(HistoryManager history) {
+            long position = head.get();
+            long end = tail.get();
+            while (position < end) {
+                int index = (int) (position & (BUFFER_SIZE - 1));
+                Task task = slots.get(index);
+                if (task == null) {
+                    break;
+                }
+                slots.set(index, null);
+                history.add(task);
+                position++;
+            }
+            head.set(position);
+        }
+    }
+}
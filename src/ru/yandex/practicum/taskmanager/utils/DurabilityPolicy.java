@@ -0,0 +1,11 @@
+package ru.yandex.practicum.taskmanager.utils;
+
+// Когда изменения истории попадают на диск
+public enum DurabilityPolicy {
+    // каждое изменение записывается и сбрасывается на диск до возврата из метода
+    EVERY_WRITE,
+    // изменения записываются фоновым потоком группами и сбрасываются на диск не реже заданного интервала
+    INTERVAL,
+    // изменения записываются фоновым потоком по мере заполнения очереди, на диск сбрасываются при закрытии
+    ON_SHUTDOWN
+}
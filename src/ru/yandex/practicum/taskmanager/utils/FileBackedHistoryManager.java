@@ -9,7 +9,7 @@ import java.io.BufferedWriter;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardCopyOption;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -17,19 +17,48 @@ import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
+// История хранится в двух файлах: файл истории (CSV или двоичный, см. HistoryFileFormat) содержит историю
+// на момент последнего сжатия, а журнал рядом с ним (файл с суффиксом .journal) - события после него,
+// по одной строке на событие: TOUCH и поля задачи - просмотр задачи, REMOVE и id - удаление, CLEAR - очистка.
+// Каждое изменение истории только дописывает строку в конец журнала. Когда событий в журнале становится
+// заметно больше, чем задач в истории, история целиком записывается в файл истории, а журнал очищается.
+// При загрузке читается файл истории и затем повторяются события журнала.
+// Запись журнала и сжатие выполняет HistoryWriter согласно политике DurabilityPolicy: при EVERY_WRITE
+// в потоке вызова, при остальных - в фоновом потоке, так что чтение задач не ждет диска
 public class FileBackedHistoryManager extends LinkedHashHistoryManager {
     private static final String DELIMITER = ",";
     private static final String HEADER = String.join(DELIMITER, Task.FIELDS_NAMES).concat("\n");
+    private static final String TOUCH = "TOUCH";
+    private static final String REMOVE = "REMOVE";
+    private static final String CLEAR = "CLEAR";
+    private static final int MIN_EVENTS_TO_COMPACT = 1000;
     private final Path file;
+    private final HistoryFileFormat format;
+    private final Path journalFile;
+    private final HistoryWriter journal;
+    private int events;
 
     public FileBackedHistoryManager(Path file, boolean doLoadFile) {
+        this(file, doLoadFile, DurabilityPolicy.EVERY_WRITE, Duration.ZERO);
+    }
+
+    public FileBackedHistoryManager(Path file, boolean doLoadFile, DurabilityPolicy policy, Duration flushInterval) {
+        this(file, doLoadFile, HistoryFileFormat.CSV, policy, flushInterval);
+    }
+
+    public FileBackedHistoryManager(Path file, boolean doLoadFile, HistoryFileFormat format,
+                                    DurabilityPolicy policy, Duration flushInterval) {
         this.file = file;
+        this.format = format;
+        this.journalFile = file.resolveSibling(file.getFileName() + ".journal");
         if (doLoadFile) {
             loadFile();
         } else {
             createNewFile();
         }
+        this.journal = HistoryWriter.open(journalFile, policy, flushInterval);
     }
 
     private void createNewFile() {
@@ -37,6 +66,7 @@ public class FileBackedHistoryManager extends LinkedHashHistoryManager {
             if (Files.isRegularFile(file)) {
                 Files.delete(file);
             }
+            Files.deleteIfExists(journalFile);
             Files.createFile(file);
             save(Collections.emptyList());
         } catch (IOException e) {
@@ -49,29 +79,105 @@ public class FileBackedHistoryManager extends LinkedHashHistoryManager {
             createNewFile();
             return;
         }
-        try (BufferedReader reader = Files.newBufferedReader(file)) {
+        // задачи записаны от последней просмотренной к первой, поэтому каждая задача добавляется в конец истории
+        if (format == HistoryFileFormat.BINARY) {
+            BinaryHistoryFile.read(file, this::addLast);
+        } else {
+            readCsv(file, this::addLast);
+        }
+        loadJournal();
+    }
+
+    private static void readCsv(Path source, Consumer<Task> consumer) {
+        try (BufferedReader reader = Files.newBufferedReader(source)) {
             String line = reader.readLine();
             if ((line == null) || (!line.trim().equals(HEADER.trim()))) {
                 throw new ManagerSaveException(
-                        String.format("%s is not a task history file or corrupted! Header is absent", file));
+                        String.format("%s is not a task history file or corrupted! Header is absent", source));
             }
-            ArrayList<Task> tasks = new ArrayList<>();
             while ((line = reader.readLine()) != null) {
-                String[] elements = line.split(DELIMITER);
-                if (elements.length < Task.FIELDS_NAMES.length) {
-                    throw new ManagerSaveException(String.format("File %s is corrupted! Not enough fields", file));
-                }
-                tasks.add(restoreTask(elements));
-                for (int i = tasks.size() - 1; i >= 0; i--) {
-                    super.add(tasks.get(i));
+                consumer.accept(restoreTask(parseFields(line, 0, source), source));
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException(String.format("File access error for task history %s!", source), e);
+        }
+    }
+
+    // Перевод CSV-файла истории в двоичный формат и обратно. Журналы файлов не учитываются
+    public static void importCsv(Path csv, Path binary) {
+        List<Task> history = new ArrayList<>();
+        readCsv(csv, history::add);
+        BinaryHistoryFile.write(binary, history);
+    }
+
+    public static void exportCsv(Path binary, Path csv) {
+        List<Task> history = new ArrayList<>();
+        BinaryHistoryFile.read(binary, history::add);
+        writeCsv(csv, history);
+    }
+
+    // Недописанная последняя строка журнала (например, после сбоя во время записи) пропускается
+    private void loadJournal() {
+        if (!Files.exists(journalFile)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(journalFile)) {
+            String line = reader.readLine();
+            while (line != null) {
+                String next = reader.readLine();
+                try {
+                    replay(line);
+                } catch (ManagerSaveException e) {
+                    if (next != null) {
+                        throw e;
+                    }
                 }
+                events++;
+                line = next;
             }
         } catch (IOException e) {
-            throw new ManagerSaveException(String.format("File access error for task history %s!", file), e);
+            throw new ManagerSaveException(String.format("File access error for task history %s!", journalFile), e);
+        }
+    }
+
+    private void replay(String line) {
+        int end = line.indexOf(DELIMITER);
+        String event = (end < 0) ? line : line.substring(0, end);
+        switch (event) {
+            case TOUCH -> super.add(restoreTask(parseFields(line, end + 1, journalFile), journalFile));
+            case REMOVE -> {
+                try {
+                    super.remove(Integer.parseInt(line, end + 1, line.length(), 10));
+                } catch (RuntimeException e) {
+                    throw new ManagerSaveException(String.format("File %s is corrupted!", journalFile), e);
+                }
+            }
+            case CLEAR -> super.clear();
+            default -> throw new ManagerSaveException(String.format("File %s is corrupted! Unknown event %s",
+                    journalFile, event));
         }
     }
 
-    private Task restoreTask(String[] elements) {
+    // Поля задачи из строки, начиная с позиции from. Строка просматривается один раз, без регулярных выражений,
+    // лишние поля в конце строки не учитываются
+    private static String[] parseFields(String line, int from, Path source) {
+        String[] elements = new String[Task.FIELDS_NAMES.length];
+        int start = from;
+        for (int i = 0; i < elements.length; i++) {
+            int end = line.indexOf(DELIMITER, start);
+            if (end < 0) {
+                if ((i != elements.length - 1) || (start > line.length())) {
+                    throw new ManagerSaveException(String.format("File %s is corrupted! Not enough fields", source));
+                }
+                end = line.length();
+            }
+            elements[i] = line.substring(start, end);
+            start = end + 1;
+        }
+        return elements;
+    }
+
+    private static Task restoreTask(String[] elements, Path source) {
         try {
             Integer id = Integer.parseInt(elements[0]);
             Subordination subordination = Subordination.valueOf(elements[1]);
@@ -108,36 +214,89 @@ public class FileBackedHistoryManager extends LinkedHashHistoryManager {
             task.setStatus(status);
             return task;
         } catch (Exception e) {
-            throw new ManagerSaveException(String.format("File %s is corrupted! Error during unpacking", file), e);
+            throw new ManagerSaveException(String.format("File %s is corrupted! Error during unpacking", source), e);
         }
     }
 
     @Override
     public void add(Task item) {
+        if (item == null) {
+            return;
+        }
         super.add(item);
-        save(getHistory());
+        append(TOUCH + DELIMITER + String.join(DELIMITER, item.convertToStringArray()));
     }
 
     @Override
     public void remove(int id) {
+        int sizeBefore = size();
         super.remove(id);
-        save(super.getHistory());
+        if (size() != sizeBefore) {
+            append(REMOVE + DELIMITER + id);
+        }
     }
 
     @Override
     public void clear() {
         super.clear();
-        save(super.getHistory());
+        append(CLEAR);
+    }
+
+    // Ожидание записи на диск всех изменений истории
+    public void flush() {
+        journal.flush();
+    }
+
+    @Override
+    public void close() {
+        journal.close();
+    }
+
+    private void append(String event) {
+        journal.append(event);
+        events++;
+        if ((events >= MIN_EVENTS_TO_COMPACT) && (events > 2 * size())) {
+            compact();
+        }
+    }
+
+    // Запись всей истории в CSV-файл и очистка журнала. CSV-файл заменяется атомарно, поэтому при сбое
+    // остается либо старый файл с журналом, либо новый файл, повтор журнала поверх которого ничего не меняет.
+    // Копия истории снимается сразу, а запись файла выполняется в порядке очереди журнала
+    public void compact() {
+        List<Task> history = getHistory();
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        journal.compact(() -> {
+            save(temporary, history);
+            try {
+                Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                throw new ManagerSaveException(String.format("Error writing the task history file %s!", file), e);
+            }
+        });
+        events = 0;
     }
 
     private void save(List<Task> tasks) {
-        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardOpenOption.TRUNCATE_EXISTING)) {
+        save(file, tasks);
+    }
+
+    private void save(Path target, List<Task> tasks) {
+        if (format == HistoryFileFormat.BINARY) {
+            BinaryHistoryFile.write(target, tasks);
+        } else {
+            writeCsv(target, tasks);
+        }
+    }
+
+    private static void writeCsv(Path target, List<Task> tasks) {
+        try (BufferedWriter writer = Files.newBufferedWriter(target)) {
             writer.write(HEADER);
             for (Task task : tasks) {
                 writer.write(String.join(DELIMITER, task.convertToStringArray()).concat("\n"));
             }
         } catch (IOException e) {
-            throw new ManagerSaveException(String.format("Error writing the task history file %s!", file), e);
+            throw new ManagerSaveException(String.format("Error writing the task history file %s!", target), e);
         }
     }
 }
@@ -2,4 +2,7 @@ package ru.yandex.practicum.taskmanager.utils;
 
 public interface Generator {
     Integer getId();
+
+    // id занят восстановленной задачей, следующие выдаваемые id должны быть больше него
+    void skipTo(Integer usedId);
 }
@@ -0,0 +1,9 @@
+package ru.yandex.practicum.taskmanager.utils;
+
+// Формат файла, в который сохраняется история при сжатии журнала
+public enum HistoryFileFormat {
+    // текстовый файл с заголовком, по строке на задачу
+    CSV,
+    // записи фиксированного размера, см. BinaryHistoryFile
+    BINARY
+}
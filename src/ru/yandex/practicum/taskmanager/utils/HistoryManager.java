@@ -4,12 +4,20 @@ import ru.yandex.practicum.taskmanager.tasks.Task;
 
 import java.util.List;
 
-public interface HistoryManager {
+public interface HistoryManager extends AutoCloseable {
     void add(Task item);
 
     void remove(int id);
 
     List<Task> getHistory();
 
+    // Не больше limit последних просмотренных задач, начиная с самой последней
+    List<Task> getHistory(int limit);
+
     void clear();
+
+    // Освобождение ресурсов истории: фоновых потоков записи и файлов
+    @Override
+    default void close() {
+    }
 }
@@ -0,0 +1,248 @@
+package ru.yandex.practicum.taskmanager.utils;
+
+import ru.yandex.practicum.taskmanager.exceptions.ManagerSaveException;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// Запись строк журнала истории в файл с групповой записью на диск.
+// При политике EVERY_WRITE строка записывается и сбрасывается на диск в потоке вызова.
+// При остальных политиках строка только помещается в ограниченную очередь, а фоновый поток собирает
+// строки в группы и записывает группу, когда в ней набирается BATCH_SIZE строк или проходит flushInterval
+// с первой строки группы (для ON_SHUTDOWN - только по размеру). Если очередь заполнена, вызов ждет,
+// пока фоновый поток ее освободит. Сжатие журнала и flush() выполняются в порядке очереди
+public class HistoryWriter implements AutoCloseable {
+    private static final int QUEUE_CAPACITY = 4096;
+    private static final int BATCH_SIZE = 256;
+    private final Path file;
+    private final DurabilityPolicy policy;
+    private final long intervalNanos;
+    private final BlockingQueue<Entry> queue;
+    private Thread worker;
+    private Thread shutdownHook;
+    private FileOutputStream output;
+    private BufferedWriter writer;
+    private volatile ManagerSaveException failure;
+    private volatile boolean closed;
+
+    // Строка журнала, сжатие (save записывает историю целиком, после чего журнал очищается)
+    // или ожидание записи на диск
+    private record Entry(String line, Runnable save, CountDownLatch done) {
+        boolean isBarrier() {
+            return line == null;
+        }
+    }
+
+    // Фоновый поток и хук завершения JVM запускаются после создания объекта
+    public static HistoryWriter open(Path file, DurabilityPolicy policy, Duration flushInterval) {
+        HistoryWriter writer = new HistoryWriter(file, policy, flushInterval);
+        if (policy != DurabilityPolicy.EVERY_WRITE) {
+            writer.start();
+        }
+        return writer;
+    }
+
+    private HistoryWriter(Path file, DurabilityPolicy policy, Duration flushInterval) {
+        this.file = file;
+        this.policy = policy;
+        this.intervalNanos = (policy == DurabilityPolicy.ON_SHUTDOWN) ? Long.MAX_VALUE : flushInterval.toNanos();
+        this.queue = (policy == DurabilityPolicy.EVERY_WRITE) ? null : new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        openFile(true);
+    }
+
+    private void start() {
+        worker = new Thread(this::run, "history-writer");
+        worker.setDaemon(true);
+        worker.start();
+        shutdownHook = new Thread(this::flush, "history-writer-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    public void append(String line) {
+        checkFailure();
+        if (policy == DurabilityPolicy.EVERY_WRITE) {
+            synchronized (this) {
+                try {
+                    writer.write(line);
+                    writer.write("\n");
+                    sync();
+                } catch (IOException e) {
+                    throw fail(e);
+                }
+            }
+            return;
+        }
+        enqueue(new Entry(line, null, null));
+    }
+
+    // Сжатие: save должен записать историю целиком, после этого журнал очищается.
+    // Все строки, добавленные до вызова, к этому моменту уже записаны
+    public void compact(Runnable save) {
+        checkFailure();
+        if (policy == DurabilityPolicy.EVERY_WRITE) {
+            synchronized (this) {
+                try {
+                    truncate(save);
+                } catch (IOException e) {
+                    throw fail(e);
+                }
+            }
+            return;
+        }
+        enqueue(new Entry(null, save, null));
+    }
+
+    // Ожидание записи на диск всех строк, добавленных до вызова
+    public void flush() {
+        if ((policy == DurabilityPolicy.EVERY_WRITE) || closed || !worker.isAlive()) {
+            return;
+        }
+        CountDownLatch done = new CountDownLatch(1);
+        enqueue(new Entry(null, null, done));
+        try {
+            while (!done.await(100, TimeUnit.MILLISECONDS)) {
+                if (!worker.isAlive()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        checkFailure();
+    }
+
+    @Override
+    public void close() {
+        flush();
+        closed = true;
+        if (worker != null) {
+            worker.interrupt();
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // JVM уже завершается, хук выполняется или выполнен
+            }
+        }
+        synchronized (this) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                throw fail(e);
+            }
+        }
+    }
+
+    private void enqueue(Entry entry) {
+        if (closed) {
+            throw new IllegalStateException(String.format("History writer for %s is closed", file));
+        }
+        try {
+            queue.put(entry);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ManagerSaveException(String.format("Interrupted while writing task history %s!", file), e);
+        }
+    }
+
+    private void run() {
+        List<Entry> batch = new ArrayList<>(BATCH_SIZE);
+        try {
+            while (true) {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + intervalNanos;
+                while ((batch.size() < BATCH_SIZE) && !batch.getLast().isBarrier()) {
+                    long wait = deadline - System.nanoTime();
+                    Entry next = (wait > 0) ? queue.poll(wait, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // закрытие: записываем все, что осталось в очереди
+            queue.drainTo(batch);
+            write(batch);
+        }
+    }
+
+    private synchronized void write(List<Entry> batch) {
+        if (failure != null) {
+            batch.stream().filter(entry -> entry.done() != null).forEach(entry -> entry.done().countDown());
+            return;
+        }
+        try {
+            for (Entry entry : batch) {
+                if (entry.line() != null) {
+                    writer.write(entry.line());
+                    writer.write("\n");
+                } else if (entry.save() != null) {
+                    truncate(entry.save());
+                } else {
+                    sync();
+                }
+            }
+            if (policy == DurabilityPolicy.INTERVAL) {
+                sync();
+            } else {
+                writer.flush();
+            }
+        } catch (IOException | RuntimeException e) {
+            fail(e);
+        } finally {
+            batch.stream().filter(entry -> entry.done() != null).forEach(entry -> entry.done().countDown());
+        }
+    }
+
+    private void truncate(Runnable save) throws IOException {
+        writer.flush();
+        save.run();
+        writer.close();
+        openFile(false);
+    }
+
+    private void sync() throws IOException {
+        writer.flush();
+        output.getFD().sync();
+    }
+
+    private void openFile(boolean append) {
+        try {
+            output = new FileOutputStream(file.toFile(), append);
+        } catch (IOException e) {
+            throw new ManagerSaveException(String.format("The programme was unable to open file %s!", file), e);
+        }
+        writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+    }
+
+    private ManagerSaveException fail(Exception e) {
+        failure = (e instanceof ManagerSaveException saveException)
+                ? saveException
+                : new ManagerSaveException(String.format("Error writing the task history file %s!", file), e);
+        return failure;
+    }
+
+    private void checkFailure() {
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package ru.yandex.practicum.taskmanager.utils;
+
+import ru.yandex.practicum.taskmanager.repository.IntList;
+import ru.yandex.practicum.taskmanager.tasks.Task;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+// История, в которой хранятся только id задач в порядке просмотра, без копий задач.
+// Задачи находятся через resolver (обычно хранилище задач) при вызове getHistory(), поэтому история
+// всегда показывает текущее состояние задач. Задачи, которых уже нет в хранилище, удаляются из истории
+public class IdHistoryManager implements HistoryManager {
+    private final Function<Integer, Task> resolver;
+    // последний просмотренный id - в конце списка
+    private final IntList ids;
+
+    public IdHistoryManager(Function<Integer, Task> resolver) {
+        this.resolver = resolver;
+        this.ids = new IntList();
+    }
+
+    @Override
+    public void add(Task item) {
+        if (item == null) {
+            return;
+        }
+        ids.remove(item.getId());
+        ids.add(item.getId());
+    }
+
+    @Override
+    public void remove(int id) {
+        ids.remove(id);
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return getHistory(Integer.MAX_VALUE);
+    }
+
+    // Если часть задач удалена, список дочитывается, пока не наберется limit задач или не кончится история
+    @Override
+    public List<Task> getHistory(int limit) {
+        if ((limit <= 0) || ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Task> history = new ArrayList<>(Math.min(limit, ids.size()));
+        boolean dropped = true;
+        while (dropped && (history.size() < limit)) {
+            dropped = false;
+            int[] last = ids.lastValues(limit);
+            history.clear();
+            for (int id : last) {
+                Task task = resolver.apply(id);
+                if (task == null) {
+                    ids.remove(id);
+                    dropped = true;
+                } else {
+                    history.add(task);
+                }
+            }
+        }
+        return history;
+    }
+
+    @Override
+    public void clear() {
+        ids.clear();
+    }
+
+    public int size() {
+        return ids.size();
+    }
+}
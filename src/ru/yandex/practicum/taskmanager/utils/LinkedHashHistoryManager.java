@@ -11,10 +11,13 @@ public class LinkedHashHistoryManager implements HistoryManager {
 
     private final Node head;
     private final HashMap<Integer, Node> nodes;
+    // последний узел списка или head, если список пуст
+    private Node tail;
 
     public LinkedHashHistoryManager() {
         head = new Node(null, null, null);
         nodes = new HashMap<>();
+        tail = head;
     }
 
     @Override
@@ -30,6 +33,8 @@ public class LinkedHashHistoryManager implements HistoryManager {
             head.next = cur;
             if (oldFirst != null) {
                 oldFirst.before = cur;
+            } else {
+                tail = cur;
             }
             nodes.put(id, cur);
             return;
@@ -46,6 +51,8 @@ public class LinkedHashHistoryManager implements HistoryManager {
         beforeCur.next = afterCur;
         if (afterCur != null) {
             afterCur.before = beforeCur;
+        } else {
+            tail = beforeCur;
         }
         head.next = cur;
         oldFirst.before = cur;
@@ -64,10 +71,24 @@ public class LinkedHashHistoryManager implements HistoryManager {
         beforeCur.next = afterCur;
         if (afterCur != null) {
             afterCur.before = beforeCur;
+        } else {
+            tail = beforeCur;
         }
         nodes.remove(id);
     }
 
+    // Добавление в конец истории (как самую давнюю задачу), если задачи в истории еще нет.
+    // Нужно, чтобы загружать историю, записанную от последней задачи к первой, за один проход
+    protected void addLast(Task item) {
+        if ((item == null) || nodes.containsKey(item.getId())) {
+            return;
+        }
+        Node cur = new Node(item, tail, null);
+        tail.next = cur;
+        tail = cur;
+        nodes.put(item.getId(), cur);
+    }
+
     @Override
     public List<Task> getHistory() {
         if (head.next == null) {
@@ -81,10 +102,34 @@ public class LinkedHashHistoryManager implements HistoryManager {
         return list;
     }
 
+    // Обходятся только первые limit узлов списка
+    @Override
+    public List<Task> getHistory(int limit) {
+        if ((head.next == null) || (limit <= 0)) {
+            return Collections.emptyList();
+        }
+        ArrayList<Task> list = new ArrayList<>(Math.min(limit, nodes.size()));
+        Node pos = head;
+        while (((pos = pos.next) != null) && (list.size() < limit)) {
+            list.add(pos.value);
+        }
+        return list;
+    }
+
+    // Самая давно просмотренная задача или null, если история пуста
+    protected Task getLast() {
+        return tail.value;
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
     @Override
     public void clear() {
         nodes.clear();
         head.next = null;
+        tail = head;
     }
 
     private static class Node {
@@ -1,15 +1,21 @@
 package ru.yandex.practicum.taskmanager.utils;
 
+// Последовательные id для одного менеджера; у каждого генератора свой счетчик
 public class SerialGenerator implements Generator {
-    private static int count;
+    private int count;
 
     public SerialGenerator(int start) {
         count = start - 1;
     }
 
     @Override
-    public Integer getId() {
+    public synchronized Integer getId() {
         count++;
         return count;
     }
+
+    @Override
+    public synchronized void skipTo(Integer usedId) {
+        count = Math.max(count, usedId);
+    }
 }
@@ -0,0 +1,44 @@
+package ru.yandex.practicum.taskmanager.utils;
+
+import ru.yandex.practicum.taskmanager.tasks.Task;
+
+import java.util.List;
+
+// Потокобезопасная обертка над любым HistoryManager: все обращения выполняются под одной блокировкой
+public class SynchronizedHistoryManager implements HistoryManager {
+    private final HistoryManager history;
+
+    public SynchronizedHistoryManager(HistoryManager history) {
+        this.history = history;
+    }
+
+    @Override
+    public synchronized void add(Task item) {
+        history.add(item);
+    }
+
+    @Override
+    public synchronized void remove(int id) {
+        history.remove(id);
+    }
+
+    @Override
+    public synchronized List<Task> getHistory() {
+        return history.getHistory();
+    }
+
+    @Override
+    public synchronized List<Task> getHistory(int limit) {
+        return history.getHistory(limit);
+    }
+
+    @Override
+    public synchronized void clear() {
+        history.clear();
+    }
+
+    @Override
+    public synchronized void close() {
+        history.close();
+    }
+}
@@ -0,0 +1,88 @@
+package ru.yandex.practicum.taskmanager.utils;
+
+import ru.yandex.practicum.taskmanager.exceptions.ManagerSaveException;
+import ru.yandex.practicum.taskmanager.tasks.Subordination;
+import ru.yandex.practicum.taskmanager.tasks.Task;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+// Снимок всех задач в двоичном формате (см. BinaryTaskFormat).
+// Содержит номер последнего сегмента журнала, изменения из которого уже учтены, и наибольший выданный id.
+// Задачи записываются в порядке: эпики, затем остальные задачи по возрастанию id, поэтому при чтении
+// эпик подзадачи всегда восстанавливается раньше нее, а подзадачи эпика - в исходном порядке.
+// Файл пишется во временный файл и затем атомарно переименовывается, так что снимок либо целый, либо старый
+public record TaskSnapshot(long generation, int lastId, List<Task> tasks) {
+    private static final int MAGIC = 0x54534e50;
+
+    public static void write(Path file, TaskSnapshot snapshot) {
+        List<Task> ordered = new ArrayList<>(snapshot.tasks());
+        ordered.sort(Comparator.comparing((Task task) -> task.getSubordination() != Subordination.EPIC)
+                .thenComparing(Task::getId));
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileOutputStream output = new FileOutputStream(temporary.toFile())) {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(output), new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(MAGIC);
+            out.writeLong(snapshot.generation());
+            out.writeInt(snapshot.lastId());
+            out.writeInt(ordered.size());
+            for (Task task : ordered) {
+                BinaryTaskFormat.write(out, task);
+            }
+            out.flush();
+            out.writeLong(checked.getChecksum().getValue());
+            out.flush();
+            output.getFD().sync();
+        } catch (IOException e) {
+            throw new ManagerSaveException(String.format("Unable to write task snapshot %s!", temporary), e);
+        }
+        try {
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new ManagerSaveException(String.format("Unable to replace task snapshot %s!", file), e);
+        }
+    }
+
+    // Снимок из файла или null, если файла нет
+    public static TaskSnapshot read(Path file) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (InputStream stream = new BufferedInputStream(Files.newInputStream(file))) {
+            CheckedInputStream checked = new CheckedInputStream(stream, new CRC32());
+            DataInputStream in = new DataInputStream(checked);
+            if (in.readInt() != MAGIC) {
+                throw new ManagerSaveException(String.format("File %s is not a task snapshot!", file));
+            }
+            long generation = in.readLong();
+            int lastId = in.readInt();
+            int count = in.readInt();
+            List<Task> tasks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                tasks.add(BinaryTaskFormat.read(in));
+            }
+            long checksum = checked.getChecksum().getValue();
+            if (in.readLong() != checksum) {
+                throw new ManagerSaveException(String.format("Task snapshot %s is corrupted!", file));
+            }
+            return new TaskSnapshot(generation, lastId, tasks);
+        } catch (IOException e) {
+            throw new ManagerSaveException(String.format("File access error for task snapshot %s!", file), e);
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package ru.yandex.practicum.taskmanager.utils;
+
+import ru.yandex.practicum.taskmanager.exceptions.ManagerSaveException;
+import ru.yandex.practicum.taskmanager.tasks.Task;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+// Журнал изменений задач (write-ahead log) с групповой записью на диск.
+// Запись добавляется в буфер в памяти и сразу возвращает управление. Фоновый поток раз в flushInterval
+// дописывает все накопленные записи в конец файла одним вызовом и сбрасывает их на диск, поэтому файл
+// никогда не переписывается целиком. flush() и close() записывают буфер немедленно.
+// Каждая запись хранится как длина, контрольная сумма и содержимое. Недописанная или испорченная запись
+// в конце файла (например, после сбоя во время записи) при чтении журнала отбрасывается.
+// Журнал можно закрыть как сегмент (rotate): записи, добавленные до вызова, остаются в файле, который
+// переименовывается, а последующие записи попадают в новый пустой файл.
+// Если запись на диск не удалась, записи остаются в буфере и будут записаны при следующей попытке
+public class WriteAheadLog implements AutoCloseable {
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final byte CLEAR = 3;
+    private final Path file;
+    private final ScheduledExecutorService flusher;
+    private final Object diskLock;
+    private final ByteArrayOutputStream pending;
+    private FileChannel channel;
+    private final Map<Path, byte[]> sealed;
+    private volatile ManagerSaveException failure;
+
+    public interface Listener {
+        void put(Task task);
+
+        void delete(Integer id);
+
+        void clear();
+    }
+
+    // Журнал в файле file с фоновой записью на диск раз в flushInterval
+    public static WriteAheadLog open(Path file, Duration flushInterval) {
+        WriteAheadLog log = new WriteAheadLog(file);
+        log.start(Math.max(1, flushInterval.toMillis()));
+        return log;
+    }
+
+    private WriteAheadLog(Path file) {
+        this.file = file;
+        try {
+            this.channel = openChannel(file);
+        } catch (IOException e) {
+            throw new ManagerSaveException(String.format("The programme was unable to open task log %s!", file), e);
+        }
+        this.diskLock = new Object();
+        this.pending = new ByteArrayOutputStream();
+        this.sealed = new LinkedHashMap<>();
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-log-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private void start(long interval) {
+        flusher.scheduleWithFixedDelay(this::flushInBackground, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    // Повтор журнала с начала. Испорченный хвост файла обрезается, новые записи дописываются после
+    // последней целой записи
+    public void replay(Listener listener) {
+        synchronized (diskLock) {
+            try {
+                long validEnd = replay(channel, listener);
+                channel.truncate(validEnd);
+                channel.position(validEnd);
+            } catch (IOException e) {
+                throw new ManagerSaveException(String.format("File access error for task log %s!", file), e);
+            }
+        }
+    }
+
+    // Повтор закрытого сегмента журнала, испорченный хвост сегмента пропускается
+    public static void replay(Path segment, Listener listener) {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            replay(channel, listener);
+        } catch (IOException e) {
+            throw new ManagerSaveException(String.format("File access error for task log %s!", segment), e);
+        }
+    }
+
+    // Позиция конца последней целой записи
+    private static long replay(FileChannel channel, Listener listener) throws IOException {
+        long validEnd = 0;
+        long size = channel.size();
+        channel.position(0);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        while (true) {
+            byte[] payload = readRecord(in, size - validEnd);
+            if (payload == null) {
+                return validEnd;
+            }
+            apply(payload, listener);
+            validEnd += Integer.BYTES + Long.BYTES + payload.length;
+        }
+    }
+
+    public void put(Task task) {
+        append(PUT, out -> BinaryTaskFormat.write(out, task));
+    }
+
+    public void delete(Integer id) {
+        append(DELETE, out -> out.writeInt(id));
+    }
+
+    public void clear() {
+        append(CLEAR, out -> {
+        });
+    }
+
+    // Закрытие текущего сегмента журнала: записи, добавленные до вызова, будут сохранены в файле target.
+    // Сам вызов не обращается к диску, переименование выполняется при ближайшей записи на диск
+    public void rotate(Path target) {
+        synchronized (this) {
+            sealed.put(target, pending.toByteArray());
+            pending.reset();
+        }
+    }
+
+    // Немедленная запись на диск всего, что было добавлено до вызова.
+    // Записи убираются из буфера только после успешной записи; недописанный хвост файла обрезается,
+    // чтобы при повторной попытке записи в журнале не появились повторы
+    public void flush() {
+        synchronized (diskLock) {
+            Map<Path, byte[]> segments;
+            byte[] bytes;
+            synchronized (this) {
+                segments = new LinkedHashMap<>(sealed);
+                sealed.clear();
+                bytes = pending.toByteArray();
+                pending.reset();
+            }
+            try {
+                if (!channel.isOpen()) {
+                    channel = openChannel(file);
+                }
+                while (!segments.isEmpty()) {
+                    Map.Entry<Path, byte[]> segment = segments.entrySet().iterator().next();
+                    long start = channel.size();
+                    write(segment.getValue());
+                    channel.close();
+                    try {
+                        Files.move(file, segment.getKey(), StandardCopyOption.ATOMIC_MOVE);
+                    } catch (IOException e) {
+                        channel = openChannel(file);
+                        channel.truncate(start);
+                        throw e;
+                    }
+                    segments.remove(segment.getKey());
+                    channel = openChannel(file);
+                }
+                write(bytes);
+                bytes = null;
+                failure = null;
+            } catch (IOException e) {
+                restore(segments, (bytes == null) ? new byte[0] : bytes);
+                failure = new ManagerSaveException(String.format("Unable to write task log %s!", file), e);
+                throw failure;
+            }
+        }
+    }
+
+    // Возврат не записанных на диск записей в начало буфера. Если за время записи журнал был закрыт
+    // как сегмент, записи текущего файла относятся к первому новому сегменту
+    private synchronized void restore(Map<Path, byte[]> segments, byte[] bytes) {
+        Map<Path, byte[]> restored = new LinkedHashMap<>(segments);
+        if (sealed.isEmpty()) {
+            byte[] rest = pending.toByteArray();
+            pending.reset();
+            pending.writeBytes(bytes);
+            pending.writeBytes(rest);
+        } else {
+            Map.Entry<Path, byte[]> first = sealed.entrySet().iterator().next();
+            ByteArrayOutputStream joined = new ByteArrayOutputStream();
+            joined.writeBytes(bytes);
+            joined.writeBytes(first.getValue());
+            first.setValue(joined.toByteArray());
+        }
+        restored.putAll(sealed);
+        sealed.clear();
+        sealed.putAll(restored);
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        if (bytes.length == 0) {
+            return;
+        }
+        long start = channel.size();
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            try {
+                channel.truncate(start);
+            } catch (IOException truncateError) {
+                e.addSuppressed(truncateError);
+            }
+            throw e;
+        }
+    }
+
+    private static FileChannel openChannel(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        return channel;
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            flush();
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new ManagerSaveException(String.format("Unable to close task log %s!", file), e);
+            }
+        }
+    }
+
+    private void flushInBackground() {
+        try {
+            flush();
+        } catch (ManagerSaveException e) {
+            // ошибка сохранена в failure и будет выброшена при следующей записи
+        }
+    }
+
+    private interface Body {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    // Ошибка последней записи на диск, если после нее журнал еще не был записан успешно.
+    // Пока ошибка не исправлена, новые записи в журнал не принимаются
+    public void checkWritable() {
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void append(byte type, Body body) {
+        checkWritable();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(type);
+            body.write(out);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Unable to serialize task log record!", e);
+        }
+        byte[] payload = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        synchronized (this) {
+            DataOutputStream out = new DataOutputStream(pending);
+            try {
+                out.writeInt(payload.length);
+                out.writeLong(crc.getValue());
+                out.write(payload);
+            } catch (IOException e) {
+                throw new ManagerSaveException("Unable to serialize task log record!", e);
+            }
+        }
+    }
+
+    // Содержимое очередной записи или null, если записей больше нет или запись испорчена
+    private static byte[] readRecord(DataInputStream in, long remaining) throws IOException {
+        try {
+            int length = in.readInt();
+            long checksum = in.readLong();
+            if ((length <= 0) || (length > remaining - Integer.BYTES - Long.BYTES)) {
+                return null;
+            }
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            return (crc.getValue() == checksum) ? payload : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static void apply(byte[] payload, Listener listener) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte type = in.readByte();
+        switch (type) {
+            case PUT -> listener.put(BinaryTaskFormat.read(in));
+            case DELETE -> listener.delete(in.readInt());
+            case CLEAR -> listener.clear();
+            default -> throw new ManagerSaveException(String.format("Unknown task log record type %d!", type));
+        }
+    }
+}
@@ -576,6 +576,119 @@ class HttpTaskServerTest {
         assertEquals(3, tasks.get(3).id);
     }
 
+    @DisplayName("get prioritized list in time range")
+    @Tag("Prioritized")
+    @Test
+    void getPrioritizedRangeTest() throws IOException, InterruptedException {
+        LocalDateTime start = LocalDateTime.of(2024, 4, 13, 22, 0);
+        Selftask task1 = taskManager.add(new Selftask("name1", "decr1", start, Duration.ofHours(1)));
+        Selftask task2 = taskManager.add(new Selftask("name2", "decr2", start.plusHours(2), Duration.ofHours(1)));
+        TypeToken<List<TaskDTO>> taskToken = new TypeToken<>() {
+        };
+
+        URI uriRange = URI.create("http://localhost:8080/prioritized?from=2024-04-13T22:30:00&to=2024-04-13T23:30:00");
+        HttpRequest httpRequest = HttpRequest.newBuilder().GET().uri(uriRange).build();
+        HttpResponse<String> response = client.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        List<TaskDTO> tasks = gson.fromJson(response.body(), taskToken.getType());
+        assertEquals(List.of(task1.getId()), tasks.stream().map(u -> u.id).toList());
+
+        URI uriFrom = URI.create("http://localhost:8080/prioritized?from=2024-04-13T23:00:00");
+        HttpRequest httpRequestFrom = HttpRequest.newBuilder().GET().uri(uriFrom).build();
+        response = client.send(httpRequestFrom, HttpResponse.BodyHandlers.ofString());
+        tasks = gson.fromJson(response.body(), taskToken.getType());
+        assertEquals(List.of(task2.getId()), tasks.stream().map(u -> u.id).toList());
+
+        URI uriWrong = URI.create("http://localhost:8080/prioritized?to=tomorrow");
+        HttpRequest httpRequestWrong = HttpRequest.newBuilder().GET().uri(uriWrong).build();
+        assertEquals(405, client.send(httpRequestWrong, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
+    @DisplayName("get Selftasks by status and their count")
+    @Tag("Selftask")
+    @Test
+    void getSelftasksByStatusTest() throws IOException, InterruptedException {
+        Selftask task1 = taskManager.add(new Selftask("name1", "decr1", null, Duration.ofHours(1)));
+        Selftask task2 = taskManager.add(new Selftask("name2", "decr2", null, Duration.ofHours(1)));
+        task2.setStatus(Status.DONE);
+        taskManager.update(task2);
+        TypeToken<List<TaskDTO>> taskToken = new TypeToken<>() {
+        };
+
+        URI uriDone = URI.create("http://localhost:8080/tasks?status=DONE");
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder().GET().uri(uriDone).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        List<TaskDTO> tasks = gson.fromJson(response.body(), taskToken.getType());
+        assertEquals(List.of(task2.getId()), tasks.stream().map(u -> u.id).toList());
+
+        URI uriCount = URI.create("http://localhost:8080/tasks/count?status=new");
+        response = client.send(HttpRequest.newBuilder().GET().uri(uriCount).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertEquals(1, Integer.parseInt(response.body()));
+        assertEquals(task1, taskManager.getAllByStatus(task1.getSubordination(), Status.NEW).getFirst());
+
+        URI uriWrong = URI.create("http://localhost:8080/tasks?status=FINISHED");
+        response = client.send(HttpRequest.newBuilder().GET().uri(uriWrong).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(405, response.statusCode());
+    }
+
+    @DisplayName("search tasks by words with limit")
+    @Tag("Search")
+    @Test
+    void searchTest() throws IOException, InterruptedException {
+        Selftask task1 = taskManager.add(new Selftask("buy milk", "in the shop", null, Duration.ofHours(1)));
+        Selftask task2 = taskManager.add(new Selftask("buy bread", "in the shop", null, Duration.ofHours(1)));
+        taskManager.add(new Selftask("walk the dog", "in the park", null, Duration.ofHours(1)));
+        TypeToken<List<TaskDTO>> taskToken = new TypeToken<>() {
+        };
+
+        URI uriSearch = URI.create("http://localhost:8080/search?q=shop+BUY");
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder().GET().uri(uriSearch).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        List<TaskDTO> tasks = gson.fromJson(response.body(), taskToken.getType());
+        assertEquals(List.of(task1.getId(), task2.getId()), tasks.stream().map(u -> u.id).toList());
+
+        URI uriLimit = URI.create("http://localhost:8080/search?q=shop&limit=1");
+        response = client.send(HttpRequest.newBuilder().GET().uri(uriLimit).build(),
+                HttpResponse.BodyHandlers.ofString());
+        tasks = gson.fromJson(response.body(), taskToken.getType());
+        assertEquals(List.of(task1.getId()), tasks.stream().map(u -> u.id).toList());
+
+        URI uriWrong = URI.create("http://localhost:8080/search?limit=1");
+        response = client.send(HttpRequest.newBuilder().GET().uri(uriWrong).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(405, response.statusCode());
+    }
+
+    @DisplayName("get free slot of timeline")
+    @Tag("Prioritized")
+    @Test
+    void getFreeSlotTest() throws IOException, InterruptedException {
+        LocalDateTime start = LocalDateTime.of(2024, 4, 13, 22, 0);
+        taskManager.add(new Selftask("name1", "decr1", start, Duration.ofHours(1)));
+        taskManager.add(new Selftask("name2", "decr2", start.plusHours(2), Duration.ofHours(1)));
+
+        URI uriFree = URI.create("http://localhost:8080/prioritized/free?from=2024-04-13T21:30:00&duration=PT1H");
+        HttpRequest httpRequest = HttpRequest.newBuilder().GET().uri(uriFree).build();
+        HttpResponse<String> response = client.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertEquals(start.plusHours(1), gson.fromJson(response.body(), LocalDateTime.class));
+
+        URI uriWrong = URI.create("http://localhost:8080/prioritized/free?from=2024-04-13&duration=PT1H");
+        HttpRequest httpRequestWrong = HttpRequest.newBuilder().GET().uri(uriWrong).build();
+        assertEquals(405, client.send(httpRequestWrong, HttpResponse.BodyHandlers.ofString()).statusCode());
+
+        URI uriHuge = URI.create("http://localhost:8080/prioritized/free?from=2024-04-13T21:30:00"
+                + "&duration=PT2562047788015215H");
+        HttpRequest httpRequestHuge = HttpRequest.newBuilder().GET().uri(uriHuge).timeout(Duration.ofSeconds(5))
+                .build();
+        assertEquals(405, client.send(httpRequestHuge, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
     @DisplayName("get history list")
     @Tag("History")
     @Test
@@ -625,6 +738,52 @@ class HttpTaskServerTest {
         assertEquals(2, tasks.get(1).id);
     }
 
+    @DisplayName("get last entries of history")
+    @Tag("History")
+    @Test
+    void getHistoryLimitTest() throws IOException, InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            Selftask task = taskManager.add(new Selftask("name" + i, "decr" + i, null, null));
+            taskManager.getSelftask(task.getId());
+        }
+        HttpRequest limited = HttpRequest.newBuilder().GET()
+                .uri(URI.create("http://localhost:8080/history?limit=2")).build();
+        HttpRequest badLimit = HttpRequest.newBuilder().GET()
+                .uri(URI.create("http://localhost:8080/history?limit=0")).build();
+        HttpResponse<String> response = client.send(limited, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> badResponse = client.send(badLimit, HttpResponse.BodyHandlers.ofString());
+        TypeToken<List<TaskDTO>> taskToken = new TypeToken<>() {
+        };
+        List<TaskDTO> tasks = gson.fromJson(response.body(), taskToken.getType());
+        assertAll(
+                () -> assertEquals(200, response.statusCode()),
+                () -> assertEquals(2, tasks.size()),
+                () -> assertEquals(3, tasks.get(0).id),
+                () -> assertEquals(2, tasks.get(1).id),
+                () -> assertEquals(405, badResponse.statusCode())
+        );
+    }
+
+    @DisplayName("get task by id without history update")
+    @Tag("History")
+    @Test
+    void getWithoutTrackingTest() throws IOException, InterruptedException {
+        Selftask task = taskManager.add(new Selftask("name", "decr", null, null));
+        HttpRequest untracked = HttpRequest.newBuilder().GET()
+                .uri(URI.create("http://localhost:8080/tasks/" + task.getId() + "?track=false")).build();
+        HttpRequest badTrack = HttpRequest.newBuilder().GET()
+                .uri(URI.create("http://localhost:8080/tasks/" + task.getId() + "?track=no")).build();
+        HttpResponse<String> response = client.send(untracked, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> badResponse = client.send(badTrack, HttpResponse.BodyHandlers.ofString());
+        TaskDTO received = gson.fromJson(response.body(), TaskDTO.class);
+        assertAll(
+                () -> assertEquals(200, response.statusCode()),
+                () -> assertEquals(task.getId(), received.id),
+                () -> assertEquals(405, badResponse.statusCode()),
+                () -> assertTrue(taskManager.getHistory().isEmpty())
+        );
+    }
+
     @DisplayName("add 3 new Epictasks and get all Epictasks")
     @Tag("Epictask")
     @Test
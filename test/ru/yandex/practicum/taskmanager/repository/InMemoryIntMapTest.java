@@ -0,0 +1,83 @@
+package ru.yandex.practicum.taskmanager.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryIntMapTest {
+    InMemoryIntMap<String> map;
+
+    @BeforeEach
+    void initMap() {
+        map = new InMemoryIntMap<>();
+    }
+
+    @DisplayName("put, get and delete with growth of table")
+    @Tag("repository")
+    @Test
+    void putGetDeleteTest() {
+        for (int i = 1; i <= 1000; i++) {
+            map.put(i, "задача" + i);
+        }
+        map.put(500, "новая задача");
+        assertAll(
+                () -> assertEquals(1000, map.size()),
+                () -> assertEquals("задача1", map.get(1)),
+                () -> assertEquals("новая задача", map.get(500)),
+                () -> assertNull(map.get(1001)),
+                () -> assertNull(map.get((Integer) null)),
+                () -> assertEquals("задача1000", map.delete(1000)),
+                () -> assertNull(map.delete(1000)),
+                () -> assertEquals(999, map.values().size())
+        );
+    }
+
+    @DisplayName("values of sequential ids are returned in order of id, clear removes all")
+    @Tag("repository")
+    @Test
+    void valuesAndClearTest() {
+        for (int i = 10; i > 0; i--) {
+            map.put(i, "задача" + i);
+        }
+        map.delete(5);
+        assertEquals(List.of("задача1", "задача2", "задача3", "задача4", "задача6", "задача7", "задача8",
+                "задача9", "задача10"), new ArrayList<>(map.values()));
+
+        map.clear();
+        assertAll(
+                () -> assertTrue(map.isEmpty()),
+                () -> assertTrue(map.values().isEmpty()),
+                () -> assertNull(map.get(1))
+        );
+    }
+
+    @DisplayName("random operations with colliding keys give the same result as HashMap")
+    @Tag("repository")
+    @Test
+    void randomCompareWithHashMapTest() {
+        Random random = new Random(7);
+        HashMap<Integer, String> expected = new HashMap<>();
+        for (int step = 0; step < 20000; step++) {
+            int key = random.nextInt(300) * 64 - 5000;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.delete(key));
+            } else {
+                String value = "значение" + step;
+                expected.put(key, value);
+                map.put(key, value);
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (int key = -5000; key < 300 * 64; key += 64) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+    }
+}
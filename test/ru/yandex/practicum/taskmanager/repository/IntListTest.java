@@ -0,0 +1,81 @@
+package ru.yandex.practicum.taskmanager.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntListTest {
+    IntList list;
+
+    @BeforeEach
+    void initList() {
+        list = new IntList();
+    }
+
+    @DisplayName("order of adding is kept after remove and repeated add")
+    @Tag("repository")
+    @Test
+    void orderTest() {
+        for (int i = 1; i <= 5; i++) {
+            list.add(i);
+        }
+        assertAll(
+                () -> assertFalse(list.add(3)),
+                () -> assertTrue(list.remove(3)),
+                () -> assertFalse(list.remove(3)),
+                () -> assertTrue(list.remove(1)),
+                () -> assertTrue(list.add(3)),
+                () -> assertArrayEquals(new int[]{2, 4, 5, 3}, list.toArray()),
+                () -> assertTrue(list.contains(4)),
+                () -> assertFalse(list.contains(1)),
+                () -> assertEquals(4, list.size())
+        );
+
+        list.clear();
+        assertAll(
+                () -> assertTrue(list.isEmpty()),
+                () -> assertEquals(0, list.toArray().length),
+                () -> assertFalse(list.contains(2))
+        );
+    }
+
+    @DisplayName("last values are returned from the end of list")
+    @Tag("repository")
+    @Test
+    void lastValuesTest() {
+        for (int i = 1; i <= 5; i++) {
+            list.add(i);
+        }
+        list.remove(5);
+        list.remove(2);
+        list.add(2);
+        assertAll(
+                () -> assertArrayEquals(new int[]{2, 4}, list.lastValues(2)),
+                () -> assertArrayEquals(new int[]{2, 4, 3, 1}, list.lastValues(10)),
+                () -> assertEquals(0, list.lastValues(0).length)
+        );
+    }
+
+    @DisplayName("random operations give the same result as LinkedHashSet")
+    @Tag("repository")
+    @Test
+    void randomCompareWithLinkedHashSetTest() {
+        Random random = new Random(11);
+        LinkedHashSet<Integer> expected = new LinkedHashSet<>();
+        for (int step = 0; step < 20000; step++) {
+            int value = random.nextInt(500) * 32;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), list.remove(value));
+            } else {
+                assertEquals(expected.add(value), list.add(value));
+            }
+        }
+        assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), list.toArray());
+    }
+}
@@ -0,0 +1,199 @@
+package ru.yandex.practicum.taskmanager.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalTreeTimelineTest {
+    Timeline timeline;
+    static LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @BeforeEach
+    void initTimeline() {
+        timeline = new IntervalTreeTimeline();
+    }
+
+    @DisplayName("empty timeline has no intersections")
+    @Tag("timeline")
+    @Test
+    void emptyTimelineTest() {
+        assertAll(
+                () -> assertTrue(timeline.isEmpty()),
+                () -> assertTrue(timeline.values().isEmpty()),
+                () -> assertFalse(timeline.isIntersected(base, base.plusHours(1)))
+        );
+    }
+
+    @DisplayName("intersection is checked for half-open intervals")
+    @Tag("timeline")
+    @Test
+    void halfOpenIntersectionTest() {
+        timeline.put(base.plusHours(2), base.plusHours(4), 1);
+        assertAll(
+                () -> assertFalse(timeline.isIntersected(base, base.plusHours(2))),
+                () -> assertFalse(timeline.isIntersected(base.plusHours(4), base.plusHours(5))),
+                () -> assertTrue(timeline.isIntersected(base.plusHours(1), base.plusHours(3))),
+                () -> assertTrue(timeline.isIntersected(base.plusHours(3), base.plusHours(5))),
+                () -> assertTrue(timeline.isIntersected(base, base.plusHours(6))),
+                () -> assertTrue(timeline.isIntersected(base.plusHours(3), base.plusHours(3)))
+        );
+    }
+
+    @DisplayName("values are returned in order of start and deleted intervals are gone")
+    @Tag("timeline")
+    @Test
+    void orderAndDeleteTest() {
+        timeline.put(base.plusHours(10), base.plusHours(11), 1);
+        timeline.put(base.plusHours(1), base.plusHours(2), 2);
+        timeline.put(base.plusHours(5), base.plusHours(6), 3);
+        assertEquals(List.of(2, 3, 1), timeline.values());
+
+        timeline.delete(base.plusHours(5), 3);
+        assertEquals(List.of(2, 1), timeline.values());
+        assertFalse(timeline.isIntersected(base.plusHours(5), base.plusHours(6)));
+
+        timeline.clear();
+        assertTrue(timeline.isEmpty());
+    }
+
+    @DisplayName("intervals with equal start are kept separately and deleted by id")
+    @Tag("timeline")
+    @Test
+    void equalStartTest() {
+        timeline.put(base, base, 7);
+        timeline.put(base, base, 3);
+        timeline.put(base, base.plusHours(1), 5);
+        assertEquals(List.of(3, 5, 7), timeline.values());
+
+        timeline.delete(base, 5);
+        assertEquals(List.of(3, 7), timeline.values());
+        assertFalse(timeline.isIntersected(base, base.plusHours(1)));
+
+        timeline.delete(base, 1);
+        assertEquals(List.of(3, 7), timeline.values());
+    }
+
+    @DisplayName("intersections match brute force check on random intervals")
+    @Tag("timeline")
+    @Test
+    void randomIntervalsTest() {
+        Random random = new Random(42);
+        List<Interval> intervals = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            LocalDateTime start = base.plusMinutes(random.nextInt(100_000));
+            LocalDateTime finish = start.plusMinutes(1 + random.nextInt(30));
+            if (!timeline.isIntersected(start, finish)) {
+                timeline.put(start, finish, i);
+                intervals.add(new Interval(start, finish, i));
+            }
+            if (!intervals.isEmpty() && random.nextInt(4) == 0) {
+                Interval removed = intervals.remove(random.nextInt(intervals.size()));
+                timeline.delete(removed.start(), removed.id());
+            }
+        }
+        for (int i = 0; i < 2000; i++) {
+            LocalDateTime start = base.plusMinutes(random.nextInt(100_000));
+            LocalDateTime finish = start.plusMinutes(random.nextInt(60));
+            boolean expected = intervals.stream()
+                    .anyMatch(u -> u.start().isBefore(finish) && u.finish().isAfter(start));
+            assertEquals(expected, timeline.isIntersected(start, finish));
+        }
+        assertEquals(intervals.size(), timeline.values().size());
+    }
+
+    @DisplayName("free slot is found before, between and after intervals")
+    @Tag("timeline")
+    @Test
+    void findFreeSlotTest() {
+        timeline.put(base.plusHours(1), base.plusHours(2), 1);
+        timeline.put(base.plusHours(3), base.plusHours(4), 2);
+        timeline.put(base.plusHours(6), base.plusHours(7), 3);
+        assertAll(
+                () -> assertEquals(base, timeline.findFreeSlot(base, Duration.ofHours(1))),
+                () -> assertEquals(base.plusHours(2), timeline.findFreeSlot(base.plusMinutes(30), Duration.ofHours(1))),
+                () -> assertEquals(base.plusHours(4), timeline.findFreeSlot(base, Duration.ofHours(2))),
+                () -> assertEquals(base.plusHours(7), timeline.findFreeSlot(base, Duration.ofHours(3))),
+                () -> assertEquals(base.plusHours(2), timeline.findFreeSlot(base.plusMinutes(90),
+                        Duration.ofMinutes(30))),
+                () -> assertEquals(base.plusHours(10), timeline.findFreeSlot(base.plusHours(10),
+                        Duration.ofDays(1)))
+        );
+        timeline.clear();
+        assertEquals(base, timeline.findFreeSlot(base, Duration.ofDays(1)));
+    }
+
+    @DisplayName("free slot matches brute force search on random intervals")
+    @Tag("timeline")
+    @Test
+    void randomFreeSlotTest() {
+        Random random = new Random(17);
+        List<Interval> intervals = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            LocalDateTime start = base.plusMinutes(random.nextInt(50_000));
+            LocalDateTime finish = start.plusMinutes(1 + random.nextInt(40));
+            timeline.put(start, finish, i);
+            intervals.add(new Interval(start, finish, i));
+            if (random.nextInt(5) == 0) {
+                Interval removed = intervals.remove(random.nextInt(intervals.size()));
+                timeline.delete(removed.start(), removed.id());
+            }
+        }
+        for (int i = 0; i < 300; i++) {
+            LocalDateTime from = base.plusMinutes(random.nextInt(52_000) - 1000);
+            Duration duration = Duration.ofMinutes(1 + random.nextInt(90));
+            // самое раннее свободное окно начинается либо в from, либо в момент окончания одного из интервалов
+            LocalDateTime expected = Stream.concat(Stream.of(from), intervals.stream().map(Interval::finish))
+                    .filter(u -> !u.isBefore(from))
+                    .sorted()
+                    .filter(u -> isFree(intervals, u, duration))
+                    .findFirst()
+                    .orElseThrow();
+            assertEquals(expected, timeline.findFreeSlot(from, duration));
+        }
+    }
+
+    @DisplayName("range query matches brute force filter on random intervals")
+    @Tag("timeline")
+    @Test
+    void randomRangeTest() {
+        Random random = new Random(23);
+        List<Interval> intervals = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            LocalDateTime start = base.plusMinutes(random.nextInt(50_000));
+            LocalDateTime finish = start.plusMinutes(random.nextInt(40));
+            timeline.put(start, finish, i);
+            intervals.add(new Interval(start, finish, i));
+        }
+        intervals.sort(Comparator.comparing(Interval::start).thenComparing(Interval::id));
+        for (int i = 0; i < 300; i++) {
+            LocalDateTime from = base.plusMinutes(random.nextInt(52_000) - 1000);
+            LocalDateTime to = from.plusMinutes(random.nextInt(500));
+            List<Integer> expected = intervals.stream()
+                    .filter(u -> u.start().isBefore(to) && u.finish().isAfter(from))
+                    .map(Interval::id)
+                    .toList();
+            assertEquals(expected, timeline.values(from, to));
+        }
+        assertEquals(intervals.stream().map(Interval::id).toList(),
+                timeline.values(LocalDateTime.MIN, LocalDateTime.MAX));
+    }
+
+    static boolean isFree(List<Interval> intervals, LocalDateTime slot, Duration duration) {
+        LocalDateTime finish = slot.plus(duration);
+        return intervals.stream().noneMatch(u -> u.start().isBefore(finish) && u.finish().isAfter(slot));
+    }
+
+    record Interval(LocalDateTime start, LocalDateTime finish, int id) {
+    }
+}
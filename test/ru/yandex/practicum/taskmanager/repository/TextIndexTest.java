@@ -0,0 +1,64 @@
+package ru.yandex.practicum.taskmanager.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextIndexTest {
+    TextIndex index;
+
+    @BeforeEach
+    void initIndex() {
+        index = new TextIndex();
+        index.add(1, "Купить сыр, молоко и творог");
+        index.add(2, "Купить ёлку к Новому году");
+        index.add(3, "Выгулять собаку в парке");
+    }
+
+    @DisplayName("text is split into lower case words")
+    @Tag("search")
+    @Test
+    void tokenizeTest() {
+        assertAll(
+                () -> assertEquals(Set.of("елка", "2024", "год"), TextIndex.tokenize("Ёлка-2024: год")),
+                () -> assertTrue(TextIndex.tokenize(" ,.! ").isEmpty()),
+                () -> assertTrue(TextIndex.tokenize(null).isEmpty())
+        );
+    }
+
+    @DisplayName("search returns tasks containing all words of query")
+    @Tag("search")
+    @Test
+    void searchTest() {
+        assertAll(
+                () -> assertEquals(List.of(1, 2), index.search("купить", 10)),
+                () -> assertEquals(List.of(2), index.search("КУПИТЬ елку", 10)),
+                () -> assertEquals(List.of(1), index.search("купить", 1)),
+                () -> assertTrue(index.search("купить собаку", 10).isEmpty()),
+                () -> assertTrue(index.search("кошку", 10).isEmpty()),
+                () -> assertTrue(index.search("", 10).isEmpty())
+        );
+    }
+
+    @DisplayName("update and remove change posting lists")
+    @Tag("search")
+    @Test
+    void updateRemoveTest() {
+        index.update(1, "Купить сыр, молоко и творог", "Купить хлеб");
+        index.remove(2, "Купить ёлку к Новому году");
+        assertAll(
+                () -> assertEquals(List.of(1), index.search("купить", 10)),
+                () -> assertTrue(index.search("сыр", 10).isEmpty()),
+                () -> assertTrue(index.search("елку", 10).isEmpty()),
+                () -> assertEquals(List.of(1), index.search("хлеб", 10))
+        );
+        index.clear();
+        assertTrue(index.search("хлеб", 10).isEmpty());
+    }
+}
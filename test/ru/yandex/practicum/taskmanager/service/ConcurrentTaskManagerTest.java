@@ -0,0 +1,196 @@
+package ru.yandex.practicum.taskmanager.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.taskmanager.repository.InMemoryConcurrentMap;
+import ru.yandex.practicum.taskmanager.repository.IntervalTreeTimeline;
+import ru.yandex.practicum.taskmanager.tasks.*;
+import ru.yandex.practicum.taskmanager.utils.LinkedHashHistoryManager;
+import ru.yandex.practicum.taskmanager.utils.SerialGenerator;
+import ru.yandex.practicum.taskmanager.utils.SynchronizedHistoryManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentTaskManagerTest {
+    static final int THREADS = 8;
+    static LocalDateTime startDateTime = LocalDateTime.of(2024, 4, 1, 13, 20);
+    TaskManager taskManager;
+    ExecutorService executor;
+
+    @BeforeEach
+    void initTaskManager() {
+        taskManager = new ConcurrentTaskManager(new InMemoryConcurrentMap<>(), new InMemoryConcurrentMap<>(),
+                new SerialGenerator(1), new SynchronizedHistoryManager(new LinkedHashHistoryManager()),
+                new IntervalTreeTimeline());
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        executor.shutdownNow();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    <T> List<T> runAll(List<Callable<T>> jobs) throws Exception {
+        List<T> results = new ArrayList<>();
+        for (Future<T> future : executor.invokeAll(jobs)) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    @DisplayName("parallel work with different epics keeps status and time of each epic")
+    @Tag("concurrency")
+    @Test
+    void parallelEpicsTest() throws Exception {
+        int subsPerEpic = 200;
+        List<Epictask> epics = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            epics.add(taskManager.add(new Epictask("эпик" + i, "описание", null, null)));
+        }
+        List<Callable<Integer>> jobs = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            int epicId = epics.get(i).getId();
+            int shift = i * subsPerEpic;
+            jobs.add(() -> {
+                for (int j = 0; j < subsPerEpic; j++) {
+                    LocalDateTime start = startDateTime.plusHours(shift + j);
+                    Subtask sub = taskManager.add(new Subtask("подзадача", "описание", start,
+                            Duration.ofMinutes(30), epicId));
+                    sub.setStatus(Status.DONE);
+                    taskManager.update(sub);
+                }
+                return epicId;
+            });
+        }
+        runAll(jobs);
+
+        assertEquals(THREADS * subsPerEpic, taskManager.getPrioritizedTasks().size());
+        for (int i = 0; i < THREADS; i++) {
+            Task epic = taskManager.get(epics.get(i).getId());
+            LocalDateTime expectedStart = startDateTime.plusHours((long) i * subsPerEpic);
+            assertAll(
+                    () -> assertEquals(Status.DONE, epic.getStatus()),
+                    () -> assertEquals(expectedStart, epic.getStartTime()),
+                    () -> assertEquals(Duration.ofHours(subsPerEpic - 1).plusMinutes(30), epic.getDuration()),
+                    () -> assertEquals(subsPerEpic, taskManager.getAllSubs(epic.getId()).size())
+            );
+        }
+    }
+
+    @DisplayName("clear in parallel with adds leaves indexes consistent with stored tasks")
+    @Tag("concurrency")
+    @Test
+    void clearWhileAddingTest() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            List<Callable<Integer>> jobs = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                boolean isSelf = (i % 2 == 0);
+                jobs.add(() -> {
+                    for (int j = 0; j < 300; j++) {
+                        if (isSelf) {
+                            taskManager.add(new Selftask("задача", "описание", null, null));
+                        } else {
+                            taskManager.add(new Epictask("эпик", "описание", null, null));
+                        }
+                    }
+                    return 0;
+                });
+            }
+            jobs.add(() -> {
+                for (int j = 0; j < 20; j++) {
+                    taskManager.clear();
+                }
+                return 0;
+            });
+            runAll(jobs);
+            List<Task> all = taskManager.getAll();
+            long epics = all.stream().filter(task -> task.getSubordination() == Subordination.EPIC).count();
+            long selftasks = all.stream().filter(task -> task.getSubordination() == Subordination.SELF).count();
+            assertAll(
+                    () -> assertEquals(epics, taskManager.getAllEpictasks().size()),
+                    () -> assertEquals(epics, taskManager.getCountByStatus(Subordination.EPIC, Status.NEW)),
+                    () -> assertEquals(selftasks, taskManager.getAllSelftasks().size()),
+                    () -> assertEquals(selftasks, taskManager.getCountByStatus(Subordination.SELF, Status.NEW)),
+                    () -> assertEquals(all.size(), taskManager.getCountByStatus(Status.NEW))
+            );
+            taskManager.clear();
+        }
+    }
+
+    @DisplayName("only one of intersected tasks added in parallel gets into timeline")
+    @Tag("concurrency")
+    @Test
+    void parallelIntersectionTest() throws Exception {
+        Epictask epic = taskManager.add(new Epictask("эпик", "описание", null, null));
+        AtomicInteger added = new AtomicInteger();
+        List<Callable<Integer>> jobs = new ArrayList<>();
+        for (int i = 0; i < THREADS * 10; i++) {
+            boolean isSelf = (i % 2 == 0);
+            LocalDateTime start = startDateTime.plusMinutes(i % 7);
+            jobs.add(() -> {
+                Task task = isSelf
+                        ? taskManager.add(new Selftask("задача", "описание", start, Duration.ofHours(1)))
+                        : taskManager.add(new Subtask("подзадача", "описание", start, Duration.ofHours(1),
+                        epic.getId()));
+                return (task == null) ? 0 : added.incrementAndGet();
+            });
+        }
+        runAll(jobs);
+        assertEquals(1, added.get());
+        assertEquals(1, taskManager.getPrioritizedTasks().size());
+    }
+
+    @DisplayName("parallel delete of tasks releases their time")
+    @Tag("concurrency")
+    @Test
+    void parallelDeleteTest() throws Exception {
+        List<Callable<Task>> jobs = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Selftask task = taskManager.add(new Selftask("задача", "описание", startDateTime.plusHours(i),
+                    Duration.ofHours(1)));
+            jobs.add(() -> taskManager.delete(task.getId()));
+        }
+        List<Task> deleted = runAll(jobs);
+        assertTrue(deleted.stream().allMatch(Task::isFrozen));
+        assertTrue(taskManager.getAll().isEmpty());
+        assertTrue(taskManager.getPrioritizedTasks().isEmpty());
+    }
+
+    @DisplayName("update with a sample of another type does not change the stored task")
+    @Test
+    void updateWithWrongTypeTest() {
+        Epictask epic = taskManager.add(new Epictask("эпик", "описание", null, null));
+        Subtask sub = taskManager.add(new Subtask("подзадача", "описание", startDateTime, Duration.ofHours(1),
+                epic.getId()));
+        Selftask self = new Selftask("задача", "описание", startDateTime.plusDays(1), Duration.ofHours(2));
+        self.setId(sub.getId());
+        self.setStatus(Status.DONE);
+        Epictask wrongEpic = new Epictask("эпик", "описание", null, null);
+        wrongEpic.setId(sub.getId());
+        assertAll(
+                () -> assertNull(taskManager.update(self)),
+                () -> assertNull(taskManager.update(wrongEpic)),
+                () -> assertEquals(sub, taskManager.get(sub.getId())),
+                () -> assertEquals(Status.NEW, taskManager.get(sub.getId()).getStatus()),
+                () -> assertEquals(Status.NEW, taskManager.get(epic.getId()).getStatus()),
+                () -> assertEquals(startDateTime, taskManager.get(epic.getId()).getStartTime()),
+                () -> assertEquals(List.of(sub.getId()),
+                        taskManager.getPrioritizedTasks().stream().map(Task::getId).toList())
+        );
+    }
+}
@@ -0,0 +1,248 @@
+package ru.yandex.practicum.taskmanager.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.taskmanager.exceptions.ManagerSaveException;
+import ru.yandex.practicum.taskmanager.repository.InMemoryIntMap;
+import ru.yandex.practicum.taskmanager.repository.IntervalTreeTimeline;
+import ru.yandex.practicum.taskmanager.tasks.*;
+import ru.yandex.practicum.taskmanager.utils.SerialGenerator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.yandex.practicum.taskmanager.service.Managers.getDefaultHistory;
+
+class FileBackedTaskManagerTest {
+    Path path = Path.of("src/ru/yandex/practicum/taskmanager/repository/tasks_test.log");
+    static LocalDateTime startDateTime = LocalDateTime.of(2024, 4, 1, 13, 20);
+    static Duration duration = Duration.ofHours(2);
+    FileBackedTaskManager taskManager;
+
+    FileBackedTaskManager open() {
+        return open(1000);
+    }
+
+    FileBackedTaskManager open(int snapshotEvery) {
+        return new FileBackedTaskManager(new InMemoryIntMap<>(), new InMemoryIntMap<>(), new SerialGenerator(1),
+                getDefaultHistory(), new IntervalTreeTimeline(), path, Duration.ofMillis(10), snapshotEvery);
+    }
+
+    void deleteFiles() throws IOException {
+        try (Stream<Path> files = Files.list(path.getParent())) {
+            for (Path file : files.filter(f -> f.getFileName().toString().startsWith("tasks_test.log")).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    Path snapshotPath() {
+        return path.resolveSibling("tasks_test.log.snapshot");
+    }
+
+    FileBackedTaskManager reopen() {
+        taskManager.close();
+        taskManager = open();
+        return taskManager;
+    }
+
+    @BeforeEach
+    void initAndClearBefore() throws IOException {
+        deleteFiles();
+        taskManager = open();
+    }
+
+    @AfterEach
+    void clearAfter() throws IOException {
+        taskManager.close();
+        deleteFiles();
+    }
+
+    @DisplayName("restore tasks after add, update and delete")
+    @Tag("log")
+    @Test
+    void restoreTest() {
+        Selftask self = taskManager.add(new Selftask("сходить за продуктами", "купить сыр",
+                startDateTime, duration));
+        Epictask epic = taskManager.add(new Epictask("отпуск", "конец августа", null, null));
+        Subtask sub1 = taskManager.add(new Subtask("билеты", "купить билеты",
+                startDateTime.plusDays(1), duration, epic.getId()));
+        Subtask sub2 = taskManager.add(new Subtask("отель", null, startDateTime.plusDays(2), duration,
+                epic.getId()));
+        Selftask removed = taskManager.add(new Selftask("удалить", "", null, null));
+        Subtask done = new Subtask("билеты", "купить билеты на поезд", startDateTime.plusDays(1), duration,
+                epic.getId());
+        done.setId(sub1.getId());
+        done.setStatus(Status.DONE);
+        taskManager.update(done);
+        taskManager.delete(removed.getId());
+
+        List<Task> all = taskManager.getAll();
+        List<Task> prioritized = taskManager.getPrioritizedTasks();
+        Epictask epicBefore = taskManager.getEpic(epic.getId());
+        reopen();
+        Epictask epicAfter = taskManager.getEpic(epic.getId());
+        assertAll(
+                () -> assertEquals(all, taskManager.getAll()),
+                () -> assertEquals(prioritized, taskManager.getPrioritizedTasks()),
+                () -> assertEquals("купить билеты на поезд",
+                        taskManager.getSubtask(sub1.getId()).getDescription()),
+                () -> assertNull(taskManager.getSubtask(sub2.getId()).getDescription()),
+                () -> assertEquals(self.getStartTime(), taskManager.getSelftask(self.getId()).getStartTime()),
+                () -> assertEquals(Status.IN_PROGRESS, epicAfter.getStatus()),
+                () -> assertEquals(epicBefore.getStartTime(), epicAfter.getStartTime()),
+                () -> assertEquals(epicBefore.getDuration(), epicAfter.getDuration()),
+                () -> assertNull(taskManager.get(removed.getId())),
+                () -> assertEquals(2, taskManager.getAllSubs(epic.getId()).size())
+        );
+    }
+
+    @DisplayName("continue id sequence after restore")
+    @Tag("log")
+    @Test
+    void restoreIdTest() {
+        taskManager.add(new Selftask("первая", "", null, null));
+        Selftask last = taskManager.add(new Selftask("вторая", "", null, null));
+        reopen();
+        Selftask next = taskManager.add(new Selftask("третья", "", null, null));
+        assertEquals(last.getId() + 1, next.getId());
+    }
+
+    @DisplayName("restore batches and clear")
+    @Tag("log")
+    @Test
+    void restoreBatchAndClearTest() {
+        taskManager.add(new Selftask("до очистки", "", null, null));
+        taskManager.clear();
+        Epictask epic = taskManager.add(new Epictask("отпуск", "", null, null));
+        List<Task> added = taskManager.addAll(List.of(
+                new Subtask("билеты", "", startDateTime, duration, epic.getId()),
+                new Subtask("отель", "", startDateTime.plusDays(1), duration, epic.getId()),
+                new Selftask("работать", "", null, null)));
+        taskManager.deleteAll(List.of(added.get(2).getId()));
+        List<Task> all = taskManager.getAll();
+        reopen();
+        assertAll(
+                () -> assertEquals(all, taskManager.getAll()),
+                () -> assertEquals(3, taskManager.getAll().size()),
+                () -> assertEquals(startDateTime, taskManager.getEpic(epic.getId()).getStartTime())
+        );
+    }
+
+    @DisplayName("ignore torn record at the end of log")
+    @Tag("log")
+    @Test
+    void tornTailTest() throws IOException {
+        Selftask task = taskManager.add(new Selftask("сходить за продуктами", "", null, null));
+        taskManager.close();
+        Files.write(path, new byte[]{0, 0, 0, 100, 1, 2, 3}, StandardOpenOption.APPEND);
+        taskManager = open();
+        Selftask next = taskManager.add(new Selftask("выгулять собаку", "", null, null));
+        reopen();
+        assertAll(
+                () -> assertEquals(2, taskManager.getAll().size()),
+                () -> assertEquals(task.getName(), taskManager.getSelftask(task.getId()).getName()),
+                () -> assertEquals(next.getName(), taskManager.getSelftask(next.getId()).getName())
+        );
+    }
+
+    @DisplayName("restore from snapshot and log tail")
+    @Tag("log")
+    @Test
+    void snapshotTest() throws ExecutionException, InterruptedException, IOException {
+        Epictask epic = taskManager.add(new Epictask("отпуск", "конец августа", null, null));
+        Subtask sub = taskManager.add(new Subtask("билеты", "купить билеты", startDateTime, duration,
+                epic.getId()));
+        Selftask removed = taskManager.add(new Selftask("удалить", "", null, null));
+        taskManager.delete(removed.getId());
+        taskManager.snapshot().get();
+        long logSize = Files.size(path);
+        Subtask hotel = taskManager.add(new Subtask("отель", "", startDateTime.plusDays(1), duration,
+                epic.getId()));
+        taskManager.delete(sub.getId());
+        List<Task> all = taskManager.getAll();
+        List<Task> prioritized = taskManager.getPrioritizedTasks();
+        reopen();
+        Selftask next = taskManager.add(new Selftask("новая", "", null, null));
+        assertAll(
+                () -> assertTrue(Files.isRegularFile(snapshotPath())),
+                () -> assertEquals(0, logSize),
+                () -> assertEquals(all.size() + 1, taskManager.getAll().size()),
+                () -> assertTrue(taskManager.getAll().containsAll(all)),
+                () -> assertEquals(prioritized, taskManager.getPrioritizedTasks().subList(0, prioritized.size())),
+                () -> assertEquals(List.of(hotel), taskManager.getAllSubs(epic.getId())),
+                () -> assertEquals(hotel.getStartTime(), taskManager.getEpic(epic.getId()).getStartTime()),
+                () -> assertEquals(hotel.getId() + 1, next.getId())
+        );
+    }
+
+    @DisplayName("take snapshots in background and delete covered log segments")
+    @Tag("log")
+    @Test
+    void periodicSnapshotTest() throws IOException {
+        taskManager.close();
+        taskManager = open(10);
+        Epictask epic = taskManager.add(new Epictask("отпуск", "", null, null));
+        for (int i = 0; i < 95; i++) {
+            Subtask sub = taskManager.add(new Subtask("подзадача " + i, "", startDateTime.plusHours(3L * i),
+                    duration, epic.getId()));
+            if (i % 3 == 0) {
+                sub.setStatus(Status.DONE);
+                taskManager.update(sub);
+            }
+        }
+        List<Task> all = taskManager.getAll();
+        Epictask epicBefore = taskManager.getEpic(epic.getId());
+        reopen();
+        long segments;
+        try (Stream<Path> files = Files.list(path.getParent())) {
+            segments = files.map(f -> f.getFileName().toString())
+                    .filter(name -> name.matches("tasks_test\\.log\\.\\d+"))
+                    .count();
+        }
+        long remaining = segments;
+        assertAll(
+                () -> assertTrue(Files.isRegularFile(snapshotPath())),
+                () -> assertTrue(remaining <= 1),
+                () -> assertEquals(all.size(), taskManager.getAll().size()),
+                () -> assertTrue(taskManager.getAll().containsAll(all)),
+                () -> assertEquals(95, taskManager.getAllSubs(epic.getId()).size()),
+                () -> assertEquals(epicBefore.getStatus(), taskManager.getEpic(epic.getId()).getStatus()),
+                () -> assertEquals(epicBefore.getDuration(), taskManager.getEpic(epic.getId()).getDuration())
+        );
+    }
+
+    @DisplayName("refuse changes while the log cannot be written and accept them after recovery")
+    @Test
+    void failedFlushTest() throws Exception {
+        Selftask first = taskManager.add(new Selftask("первая", "", null, null));
+        Path blocker = path.resolveSibling("tasks_test.log.1");
+        Files.createDirectory(blocker);
+        assertThrows(ExecutionException.class, () -> taskManager.snapshot().get());
+        assertThrows(ManagerSaveException.class, () -> taskManager.add(new Selftask("вторая", "", null, null)));
+        assertThrows(ManagerSaveException.class, () -> taskManager.delete(first.getId()));
+        List<Task> whileFailed = taskManager.getAll();
+
+        Files.delete(blocker);
+        taskManager.flush();
+        Selftask third = taskManager.add(new Selftask("третья", "", null, null));
+        reopen();
+        assertAll(
+                () -> assertEquals(List.of(first), whileFailed),
+                () -> assertEquals(2, taskManager.getAll().size()),
+                () -> assertEquals(first, taskManager.get(first.getId())),
+                () -> assertEquals(third, taskManager.get(third.getId()))
+        );
+    }
+}
@@ -3,8 +3,10 @@ package ru.yandex.practicum.taskmanager.service;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.taskmanager.utils.HistoryManager;
 import ru.yandex.practicum.taskmanager.utils.LinkedHashHistoryManager;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 
 class ManagersTest {
@@ -12,13 +14,53 @@ class ManagersTest {
     @Tag("instance")
     @Test
     void getDefaultTaskManagerTest() {
-        assertInstanceOf(TaskManager.class, Managers.getDefault());
+        try (TaskManager taskManager = Managers.getDefault()) {
+            assertInstanceOf(TaskManager.class, taskManager);
+        }
+    }
+
+    @DisplayName("get ConcurrentTaskManager class")
+    @Tag("instance")
+    @Test
+    void getConcurrentTaskManagerTest() {
+        try (TaskManager taskManager = Managers.getConcurrent()) {
+            assertInstanceOf(ConcurrentTaskManager.class, taskManager);
+        }
+    }
+
+    @DisplayName("get ReadOptimizedTaskManager class")
+    @Tag("instance")
+    @Test
+    void getReadOptimizedTaskManagerTest() {
+        try (TaskManager taskManager = Managers.getReadOptimized()) {
+            assertInstanceOf(ReadOptimizedTaskManager.class, taskManager);
+        }
     }
 
     @DisplayName("get LinkedHashHistoryManager class")
     @Tag("instance")
     @Test
     void getDefaultHistoryTest() {
-        assertInstanceOf(LinkedHashHistoryManager.class, Managers.getDefaultHistory());
+        try (HistoryManager history = Managers.getDefaultHistory()) {
+            assertInstanceOf(LinkedHashHistoryManager.class, history);
+        }
+    }
+
+    @DisplayName("closed managers leave no history writer threads")
+    @Tag("instance")
+    @Test
+    void closeStopsHistoryWritersTest() {
+        long before = historyWriters();
+        for (int i = 0; i < 10; i++) {
+            Managers.getDefault().close();
+            Managers.getConcurrent().close();
+        }
+        assertEquals(before, historyWriters());
+    }
+
+    private static long historyWriters() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("history-writer"))
+                .count();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,102 @@
+package ru.yandex.practicum.taskmanager.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.taskmanager.repository.InMemoryConcurrentMap;
+import ru.yandex.practicum.taskmanager.repository.IntervalTreeTimeline;
+import ru.yandex.practicum.taskmanager.tasks.*;
+import ru.yandex.practicum.taskmanager.utils.LinkedHashHistoryManager;
+import ru.yandex.practicum.taskmanager.utils.SerialGenerator;
+import ru.yandex.practicum.taskmanager.utils.SynchronizedHistoryManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadOptimizedTaskManagerTest {
+    static LocalDateTime startDateTime = LocalDateTime.of(2024, 4, 1, 13, 20);
+    TaskManager taskManager;
+
+    @BeforeEach
+    void initTaskManager() {
+        taskManager = new ReadOptimizedTaskManager(new InMemoryConcurrentMap<>(), new InMemoryConcurrentMap<>(),
+                new SerialGenerator(1), new SynchronizedHistoryManager(new LinkedHashHistoryManager()),
+                new IntervalTreeTimeline());
+    }
+
+    @DisplayName("prioritized snapshot is rebuilt after each change")
+    @Tag("timeline")
+    @Test
+    void prioritizedSnapshotTest() {
+        Selftask task1 = taskManager.add(new Selftask("задача1", "описание1", startDateTime, Duration.ofHours(1)));
+        List<Task> list = taskManager.getPrioritizedTasks();
+        assertSame(list, taskManager.getPrioritizedTasks());
+
+        Selftask task2 = taskManager.add(new Selftask("задача2", "описание2", startDateTime.minusHours(2),
+                Duration.ofHours(1)));
+        List<Task> updated = taskManager.getPrioritizedTasks();
+        assertEquals(List.of(task2, task1), updated);
+
+        taskManager.delete(task2.getId());
+        assertEquals(List.of(task1), taskManager.getPrioritizedTasks());
+    }
+
+    @DisplayName("typed get records history once")
+    @Tag("history")
+    @Test
+    void historyOnceTest() {
+        Epictask epic = taskManager.add(new Epictask("эпик", "описание", null, null));
+        Selftask self = taskManager.add(new Selftask("задача", "описание", null, Duration.ofHours(1)));
+        assertNull(taskManager.getSelftask(epic.getId()));
+        assertEquals(epic, taskManager.getEpic(epic.getId()));
+        assertEquals(self, taskManager.getSelftask(self.getId()));
+        assertEquals(List.of(self, epic), taskManager.getHistory());
+    }
+
+    @DisplayName("readers see consistent epics while writer adds subtasks")
+    @Tag("concurrency")
+    @Test
+    void readersWithWriterTest() throws Exception {
+        Epictask epic = taskManager.add(new Epictask("эпик", "описание", null, null));
+        int epicId = epic.getId();
+        int subsNumber = 2000;
+        AtomicBoolean finished = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?> writer = executor.submit(() -> {
+                for (int i = 0; i < subsNumber; i++) {
+                    taskManager.add(new Subtask("подзадача", "описание", startDateTime.plusHours(i),
+                            Duration.ofHours(1), epicId));
+                }
+                finished.set(true);
+            });
+            Future<?> reader = executor.submit(() -> {
+                while (!finished.get()) {
+                    int subs = taskManager.getAllSubs(epicId).size();
+                    Task current = taskManager.getAll().stream()
+                            .filter(u -> u.getId() == epicId)
+                            .findFirst()
+                            .orElseThrow();
+                    assertTrue(subs <= subsNumber);
+                    assertTrue((subs == 0) || current.isTimeDefined());
+                    assertTrue(taskManager.getEpicProgress(epicId).getTotal() >= subs);
+                }
+            });
+            writer.get(30, TimeUnit.SECONDS);
+            reader.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(subsNumber, taskManager.getAllSubs(epicId).size());
+        assertEquals(Duration.ofHours(subsNumber), taskManager.get(epicId).getDuration());
+    }
+}
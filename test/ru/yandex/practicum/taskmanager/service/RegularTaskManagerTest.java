@@ -1,5 +1,6 @@
 package ru.yandex.practicum.taskmanager.service;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Tag;
@@ -7,17 +8,19 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.junit.jupiter.params.provider.NullSource;
-import ru.yandex.practicum.taskmanager.repository.InMemoryMap;
-import ru.yandex.practicum.taskmanager.repository.InMemoryTreeMap;
+import ru.yandex.practicum.taskmanager.repository.InMemoryIntMap;
+import ru.yandex.practicum.taskmanager.repository.IntList;
+import ru.yandex.practicum.taskmanager.repository.IntervalTreeTimeline;
 import ru.yandex.practicum.taskmanager.repository.Repository;
+import ru.yandex.practicum.taskmanager.repository.Timeline;
 import ru.yandex.practicum.taskmanager.tasks.*;
 import ru.yandex.practicum.taskmanager.utils.Generator;
 import ru.yandex.practicum.taskmanager.utils.HistoryManager;
+import ru.yandex.practicum.taskmanager.utils.LinkedHashHistoryManager;
 import ru.yandex.practicum.taskmanager.utils.SerialGenerator;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -54,16 +57,20 @@ class RegularTaskManagerTest {
     @BeforeEach
     public void initTaskManager() {
         int START_ID_BY_DEFAULT = 1;
-        Repository<Integer, Task> tasks = new InMemoryMap<>();
-        Repository<Integer, ArrayList<Integer>> subordinates = new InMemoryMap<>();
+        Repository<Integer, Task> tasks = new InMemoryIntMap<>();
+        Repository<Integer, IntList> subordinates = new InMemoryIntMap<>();
         Generator generator = new SerialGenerator(START_ID_BY_DEFAULT);
         HistoryManager history = getDefaultHistory();
-        Repository<LocalDateTime, Integer> starts = new InMemoryTreeMap<>(LocalDateTime::compareTo);
-        Repository<LocalDateTime, Integer> finishes = new InMemoryTreeMap<>(LocalDateTime::compareTo);
-        taskManager = new RegularTaskManager(tasks, subordinates, generator, history, starts, finishes);
+        Timeline timeline = new IntervalTreeTimeline();
+        taskManager = new RegularTaskManager(tasks, subordinates, generator, history, timeline);
         taskManager.clearHistory();
     }
 
+    @AfterEach
+    public void closeTaskManager() {
+        taskManager.close();
+    }
+
     @DisplayName("add and get Selftasks")
     @Tag("add")
     @ParameterizedTest
@@ -791,6 +798,42 @@ class RegularTaskManagerTest {
         assertArrayEquals(correctList, taskManager.getHistory().toArray());
     }
 
+    @DisplayName("each read of a task is recorded in history once and only when tracked")
+    @Tag("history")
+    @Test
+    void historyUpdatedOncePerReadTest() {
+        int[] added = new int[1];
+        HistoryManager history = new LinkedHashHistoryManager() {
+            @Override
+            public void add(Task item) {
+                added[0]++;
+                super.add(item);
+            }
+        };
+        TaskManager manager = new RegularTaskManager(new InMemoryIntMap<>(), new InMemoryIntMap<>(),
+                new SerialGenerator(1), history, new IntervalTreeTimeline());
+        Selftask self = manager.add(new Selftask("сходить за продуктами", "купить сыр", null, null));
+        Epictask epic = manager.add(new Epictask("пойти на рыбалку", "Селигер", null, null));
+        Subtask sub = manager.add(new Subtask("купить удочку", "спиннинг", null, null, epic.getId()));
+        manager.getSelftask(self.getId());
+        manager.getEpic(epic.getId());
+        manager.getSubtask(sub.getId());
+        manager.get(self.getId());
+        int tracked = added[0];
+        manager.getEpic(self.getId());
+        manager.getSelftask(self.getId(), false);
+        manager.getEpic(epic.getId(), false);
+        manager.getSubtask(sub.getId(), false);
+        manager.get(sub.getId(), false);
+        assertAll(
+                () -> assertEquals(4, tracked),
+                () -> assertEquals(4, added[0]),
+                () -> assertEquals(sub, manager.getSubtask(sub.getId(), false)),
+                () -> assertNull(manager.getEpic(sub.getId(), false)),
+                () -> assertArrayEquals(new Task[]{self, sub, epic}, manager.getHistory().toArray())
+        );
+    }
+
     @DisplayName("add Selftask with time")
     @Tag("datetime")
     @Test
@@ -1326,5 +1369,434 @@ class RegularTaskManagerTest {
         );
     }
 
+    @DisplayName("tasks with equal start do not evict each other from timeline")
+    @Tag("timeline")
+    @Test
+    void equalStartTimelineTest() {
+        LocalDateTime time = LocalDateTime.of(2000, 1, 1, 0, 0);
+        Selftask milestone1 = taskManager.add(new Selftask("name", "descript", time, Duration.ZERO));
+        Selftask milestone2 = taskManager.add(new Selftask("name", "descript", time, Duration.ZERO));
+        Selftask before = taskManager.add(new Selftask("name", "descript", time.minusDays(1), Duration.ofDays(1)));
+        Selftask after = taskManager.add(new Selftask("name", "descript", time, Duration.ofDays(1)));
+        assertAll(
+                () -> assertNotNull(milestone1),
+                () -> assertNotNull(milestone2),
+                () -> assertNotNull(before),
+                () -> assertNotNull(after)
+        );
+        List<Integer> ids = taskManager.getPrioritizedTasks().stream().map(Task::getId).toList();
+        assertEquals(List.of(before.getId(), milestone1.getId(), milestone2.getId(), after.getId()), ids);
+
+        taskManager.delete(milestone1.getId());
+        ids = taskManager.getPrioritizedTasks().stream().map(Task::getId).toList();
+        assertEquals(List.of(before.getId(), milestone2.getId(), after.getId()), ids);
+
+        taskManager.delete(after.getId());
+        assertNull(taskManager.add(new Selftask("name", "descript", time.minusHours(1), Duration.ofHours(2))));
+        assertNotNull(taskManager.add(new Selftask("name", "descript", time, Duration.ofHours(2))));
+    }
+
+    @DisplayName("progress of Epic follows status of Subtasks")
+    @Tag("SubEpic")
+    @Test
+    void epicProgressTest() {
+        Epictask epic = taskManager.add(new Epictask("пойти на рыбалку", "Селигер в районе оз Волго",
+                null, null));
+        int epicId = epic.getId();
+        Subtask sub1 = taskManager.add(new Subtask("купить удочку", "магазин",
+                LocalDateTime.of(2014, 1, 1, 1, 1), duration, epicId));
+        Subtask sub2 = taskManager.add(new Subtask("наловить червей", "200 шт.",
+                LocalDateTime.of(2015, 1, 1, 1, 1), duration, epicId));
+
+        EpicProgress progress = taskManager.getEpicProgress(epicId);
+        assertAll(
+                () -> assertEquals(2, progress.getTotal()),
+                () -> assertEquals(2, progress.getCount(Status.NEW)),
+                () -> assertEquals(Status.NEW, progress.getStatus())
+        );
+
+        sub1.setStatus(Status.DONE);
+        taskManager.update(sub1);
+        sub2.setStatus(Status.IN_PROGRESS);
+        taskManager.update(sub2);
+        EpicProgress updated = taskManager.getEpicProgress(epicId);
+        assertAll(
+                () -> assertEquals(0, updated.getCount(Status.NEW)),
+                () -> assertEquals(1, updated.getCount(Status.IN_PROGRESS)),
+                () -> assertEquals(1, updated.getCount(Status.DONE)),
+                () -> assertEquals(Status.IN_PROGRESS, taskManager.get(epicId).getStatus())
+        );
+
+        taskManager.delete(sub2.getId());
+        assertEquals(Status.DONE, taskManager.get(epicId).getStatus());
+
+        taskManager.add(new Subtask("купить алкоголь", "батя обещал самогон", null, duration, epicId));
+        assertEquals(Status.IN_PROGRESS, taskManager.get(epicId).getStatus());
+        assertEquals(2, taskManager.getEpicProgress(epicId).getTotal());
+    }
+
+    @DisplayName("progress of absent Epic")
+    @Tag("SubEpic")
+    @Test
+    void absentEpicProgressTest() {
+        Selftask self = taskManager.add(new Selftask("name", "descript", null, duration));
+        assertAll(
+                () -> assertNull(taskManager.getEpicProgress(null)),
+                () -> assertNull(taskManager.getEpicProgress(100)),
+                () -> assertNull(taskManager.getEpicProgress(self.getId()))
+        );
+    }
+
+    @DisplayName("add Epic with timed and untimed Subtasks and update them. Check time change of Epic ")
+    @Tag("datetime")
+    @Test
+    void epicTimeWithUntimedSubsTest() {
+        Epictask epictask = taskManager.add(new Epictask("задача1", "описание1", null, null));
+        int epicId = epictask.getId();
+        LocalDateTime time = LocalDateTime.of(2000, 1, 1, 0, 0);
+        Subtask timed = taskManager.add(new Subtask("задача1", "описание1", time, duration, epicId));
+        Subtask untimed = taskManager.add(new Subtask("задача2", "описание2", null, duration, epicId));
+
+        untimed.setStatus(Status.DONE);
+        assertNotNull(taskManager.update(untimed));
+        assertAll(
+                () -> assertEquals(time, taskManager.get(epicId).getStartTime()),
+                () -> assertEquals(duration, taskManager.get(epicId).getDuration())
+        );
+
+        LocalDateTime time2 = time.plusDays(10);
+        untimed.setStartTime(time2);
+        assertNotNull(taskManager.update(untimed));
+        assertEquals(Duration.between(time, time2.plus(duration)), taskManager.get(epicId).getDuration());
+
+        timed.setStartTime(null);
+        assertNotNull(taskManager.update(timed));
+        assertAll(
+                () -> assertEquals(time2, taskManager.get(epicId).getStartTime()),
+                () -> assertEquals(duration, taskManager.get(epicId).getDuration())
+        );
+    }
+
+    @DisplayName("delete Epic and check that its Subtasks left timeline")
+    @Tag("timeline")
+    @Test
+    void deleteEpicTimelineTest() {
+        Epictask epictask = taskManager.add(new Epictask("задача1", "описание1", null, null));
+        taskManager.add(new Subtask("задача1", "описание1", startDateTime, duration, epictask.getId()));
+        taskManager.delete(epictask.getId());
+        assertTrue(taskManager.getPrioritizedTasks().isEmpty());
+        assertNotNull(taskManager.add(new Selftask("задача2", "описание2", startDateTime, duration)));
+    }
+
+    @DisplayName("lists of tasks by type follow add and delete")
+    @Tag("getAll")
+    @Test
+    void getAllByTypeTest() {
+        Selftask self = taskManager.add(new Selftask("задача1", "описание1", null, duration));
+        Epictask epic1 = taskManager.add(new Epictask("эпик1", "описание1", null, null));
+        Epictask epic2 = taskManager.add(new Epictask("эпик2", "описание2", null, null));
+        Subtask sub1 = taskManager.add(new Subtask("подзадача1", "описание1", null, duration, epic1.getId()));
+        Subtask sub2 = taskManager.add(new Subtask("подзадача2", "описание2", null, duration, epic2.getId()));
+        assertAll(
+                () -> assertEquals(List.of(self), taskManager.getAllSelftasks()),
+                () -> assertEquals(List.of(epic1, epic2), taskManager.getAllEpictasks()),
+                () -> assertEquals(List.of(sub1, sub2), taskManager.getAllSubtasks())
+        );
+
+        taskManager.delete(self.getId());
+        taskManager.delete(epic1.getId());
+        assertAll(
+                () -> assertTrue(taskManager.getAllSelftasks().isEmpty()),
+                () -> assertEquals(List.of(epic2), taskManager.getAllEpictasks()),
+                () -> assertEquals(List.of(sub2), taskManager.getAllSubtasks())
+        );
+
+        taskManager.clear();
+        assertAll(
+                () -> assertTrue(taskManager.getAllEpictasks().isEmpty()),
+                () -> assertTrue(taskManager.getAllSubtasks().isEmpty())
+        );
+    }
+
+    @DisplayName("read tasks are frozen and shared, update creates a new version")
+    @Tag("get")
+    @Test
+    void frozenReadTest() {
+        Selftask added = taskManager.add(new Selftask("задача1", "описание1", startDateTime, duration));
+        int id = added.getId();
+        Task read1 = taskManager.get(id);
+        Task read2 = taskManager.getAll().getFirst();
+        assertAll(
+                () -> assertFalse(added.isFrozen()),
+                () -> assertTrue(read1.isFrozen()),
+                () -> assertSame(read1, read2),
+                () -> assertSame(read1, taskManager.getPrioritizedTasks().getFirst()),
+                () -> assertThrows(UnsupportedOperationException.class, () -> read1.setName("новое имя"))
+        );
+
+        Task pattern = read1.copy();
+        pattern.setName("новое имя");
+        taskManager.update(pattern);
+        Task read3 = taskManager.get(id);
+        assertAll(
+                () -> assertEquals("задача1", read1.getName()),
+                () -> assertEquals("новое имя", read3.getName()),
+                () -> assertNotSame(read1, read3)
+        );
+    }
+
+    @DisplayName("add batch of tasks and check that Epic is recalculated")
+    @Tag("batch")
+    @Test
+    void addAllTest() {
+        Epictask epic = taskManager.add(new Epictask("эпик", "описание", null, null));
+        int epicId = epic.getId();
+        List<Task> added = taskManager.addAll(List.of(
+                new Selftask("задача1", "описание1", startDateTime, Duration.ofHours(1)),
+                new Subtask("подзадача1", "описание1", startDateTime.plusHours(3), Duration.ofHours(1), epicId),
+                new Subtask("подзадача2", "описание2", startDateTime.plusHours(1), Duration.ofHours(1), epicId),
+                new Epictask("эпик2", "описание2", null, null)
+        ));
+        assertNotNull(added);
+        assertAll(
+                () -> assertEquals(4, added.size()),
+                () -> assertEquals(5, taskManager.getAll().size()),
+                () -> assertEquals(List.of(added.get(0), added.get(2), added.get(1)),
+                        taskManager.getPrioritizedTasks()),
+                () -> assertEquals(2, taskManager.getAllSubs(epicId).size()),
+                () -> assertEquals(startDateTime.plusHours(1), taskManager.get(epicId).getStartTime()),
+                () -> assertEquals(Duration.ofHours(3), taskManager.get(epicId).getDuration())
+        );
+    }
+
+    @DisplayName("batch with intersected tasks or absent Epic is not added at all")
+    @Tag("batch")
+    @Test
+    void addAllRejectedTest() {
+        Selftask existing = taskManager.add(new Selftask("задача", "описание", startDateTime, Duration.ofHours(1)));
+        List<Task> insideBatch = List.of(
+                new Selftask("задача1", "описание1", startDateTime.plusHours(2), Duration.ofHours(2)),
+                new Selftask("задача2", "описание2", startDateTime.plusHours(3), Duration.ofHours(1))
+        );
+        List<Task> withTimeline = List.of(
+                new Selftask("задача3", "описание3", startDateTime.plusHours(2), Duration.ofHours(1)),
+                new Selftask("задача4", "описание4", startDateTime.plusMinutes(30), Duration.ofHours(1))
+        );
+        List<Task> withoutEpic = List.of(
+                new Selftask("задача5", "описание5", null, null),
+                new Subtask("подзадача", "описание", null, null, existing.getId())
+        );
+        assertAll(
+                () -> assertNull(taskManager.addAll(insideBatch)),
+                () -> assertNull(taskManager.addAll(withTimeline)),
+                () -> assertNull(taskManager.addAll(withoutEpic)),
+                () -> assertEquals(List.of(existing), taskManager.getAll()),
+                () -> assertEquals(List.of(existing), taskManager.getPrioritizedTasks())
+        );
+    }
+
+    @DisplayName("update batch where tasks exchange their time")
+    @Tag("batch")
+    @Test
+    void updateAllTest() {
+        Epictask epic = taskManager.add(new Epictask("эпик", "описание", null, null));
+        Selftask self = taskManager.add(new Selftask("задача", "описание", startDateTime, Duration.ofHours(1)));
+        Subtask sub = taskManager.add(new Subtask("подзадача", "описание", startDateTime.plusHours(1),
+                Duration.ofHours(1), epic.getId()));
+        self.setStartTime(startDateTime.plusHours(1));
+        sub.setStartTime(startDateTime);
+        sub.setStatus(Status.DONE);
+        epic.setName("новое имя");
+        assertNull(taskManager.update(self));
+
+        List<Task> updated = taskManager.updateAll(List.of(self, sub, epic));
+        assertNotNull(updated);
+        Task storedEpic = taskManager.get(epic.getId());
+        assertAll(
+                () -> assertEquals(List.of(updated.get(1), updated.get(0)), taskManager.getPrioritizedTasks()),
+                () -> assertEquals(Status.DONE, storedEpic.getStatus()),
+                () -> assertEquals(startDateTime, storedEpic.getStartTime()),
+                () -> assertEquals("новое имя", storedEpic.getName())
+        );
+    }
+
+    @DisplayName("rejected update batch keeps tasks and timeline")
+    @Tag("batch")
+    @Test
+    void updateAllRejectedTest() {
+        Selftask self1 = taskManager.add(new Selftask("задача1", "описание1", startDateTime, Duration.ofHours(1)));
+        Selftask self2 = taskManager.add(new Selftask("задача2", "описание2", startDateTime.plusHours(1),
+                Duration.ofHours(1)));
+        Selftask self3 = taskManager.add(new Selftask("задача3", "описание3", startDateTime.plusHours(2),
+                Duration.ofHours(1)));
+        List<Task> before = taskManager.getPrioritizedTasks();
+        Selftask pattern1 = self1.copy();
+        pattern1.setName("новое имя");
+        Selftask pattern2 = self2.copy();
+        pattern2.setStartTime(startDateTime.plusHours(2));
+        Epictask wrongType = new Epictask("эпик", "описание", null, null);
+        wrongType.setId(self3.getId());
+        assertAll(
+                () -> assertNull(taskManager.updateAll(List.of(pattern1, pattern2))),
+                () -> assertNull(taskManager.updateAll(List.of(pattern1, pattern1))),
+                () -> assertNull(taskManager.updateAll(List.of(pattern1, wrongType))),
+                () -> assertEquals(before, taskManager.getPrioritizedTasks()),
+                () -> assertEquals("задача1", taskManager.get(self1.getId()).getName()),
+                () -> assertNull(taskManager.add(new Selftask("задача", "описание", startDateTime.plusMinutes(90),
+                        Duration.ofMinutes(10))))
+        );
+    }
+
+    @DisplayName("delete batch with Epic, its Subtask and absent id")
+    @Tag("batch")
+    @Test
+    void deleteAllTest() {
+        Epictask epic1 = taskManager.add(new Epictask("эпик1", "описание1", null, null));
+        Epictask epic2 = taskManager.add(new Epictask("эпик2", "описание2", null, null));
+        Subtask sub1 = taskManager.add(new Subtask("подзадача1", "описание1", startDateTime, duration,
+                epic1.getId()));
+        Subtask sub2 = taskManager.add(new Subtask("подзадача2", "описание2", null, duration, epic2.getId()));
+        Subtask sub3 = taskManager.add(new Subtask("подзадача3", "описание3", null, duration, epic2.getId()));
+        sub3.setStatus(Status.DONE);
+        taskManager.update(sub3);
+
+        assertNull(taskManager.deleteAll(List.of(sub2.getId(), 1000)));
+        assertEquals(5, taskManager.getAll().size());
+
+        List<Task> deleted = taskManager.deleteAll(List.of(epic1.getId(), sub1.getId(), sub2.getId()));
+        assertAll(
+                () -> assertEquals(List.of(epic1.getId(), sub2.getId()), deleted.stream().map(Task::getId).toList()),
+                () -> assertEquals(2, taskManager.getAll().size()),
+                () -> assertTrue(taskManager.getPrioritizedTasks().isEmpty()),
+                () -> assertEquals(Status.DONE, taskManager.get(epic2.getId()).getStatus())
+        );
+    }
+
+    @DisplayName("find earliest free slot between Selftasks and Subtasks")
+    @Tag("timeline")
+    @Test
+    void findFreeSlotTest() {
+        Epictask epic = taskManager.add(new Epictask("эпик", "описание", null, null));
+        taskManager.add(new Selftask("задача", "описание", startDateTime, Duration.ofHours(1)));
+        taskManager.add(new Subtask("подзадача", "описание", startDateTime.plusHours(2), Duration.ofHours(1),
+                epic.getId()));
+        assertAll(
+                () -> assertEquals(startDateTime.plusHours(1),
+                        taskManager.findFreeSlot(startDateTime, Duration.ofHours(1))),
+                () -> assertEquals(startDateTime.plusHours(3),
+                        taskManager.findFreeSlot(startDateTime, Duration.ofHours(2))),
+                () -> assertNull(taskManager.findFreeSlot(null, Duration.ofHours(1))),
+                () -> assertNull(taskManager.findFreeSlot(startDateTime, Duration.ofHours(-1)))
+        );
+    }
+
+    @DisplayName("get tasks intersecting time range")
+    @Tag("timeline")
+    @Test
+    void prioritizedRangeTest() {
+        Epictask epic = taskManager.add(new Epictask("эпик", "описание", null, null));
+        Selftask self1 = taskManager.add(new Selftask("задача1", "описание1", startDateTime, Duration.ofHours(1)));
+        Subtask sub = taskManager.add(new Subtask("подзадача", "описание", startDateTime.plusHours(2),
+                Duration.ofHours(1), epic.getId()));
+        Selftask self2 = taskManager.add(new Selftask("задача2", "описание2", startDateTime.plusHours(4),
+                Duration.ofHours(1)));
+        assertAll(
+                () -> assertEquals(List.of(self1, sub),
+                        taskManager.getPrioritizedTasks(startDateTime.plusMinutes(30), startDateTime.plusHours(3))),
+                () -> assertEquals(List.of(sub, self2),
+                        taskManager.getPrioritizedTasks(startDateTime.plusHours(1), startDateTime.plusDays(1))),
+                () -> assertTrue(taskManager.getPrioritizedTasks(startDateTime.plusHours(3),
+                        startDateTime.plusHours(4)).isEmpty()),
+                () -> assertTrue(taskManager.getPrioritizedTasks(startDateTime.plusHours(1), startDateTime)
+                        .isEmpty()),
+                () -> assertTrue(taskManager.getPrioritizedTasks(null, startDateTime).isEmpty())
+        );
+    }
 
-}
\ No newline at end of file
+    @DisplayName("status index follows add, update, Epic recalculation and delete")
+    @Tag("getAll")
+    @Test
+    void statusIndexTest() {
+        Epictask epic = taskManager.add(new Epictask("эпик", "описание", null, null));
+        Selftask self = taskManager.add(new Selftask("задача", "описание", null, duration));
+        Subtask sub1 = taskManager.add(new Subtask("подзадача1", "описание1", null, duration, epic.getId()));
+        Subtask sub2 = taskManager.add(new Subtask("подзадача2", "описание2", null, duration, epic.getId()));
+        assertAll(
+                () -> assertEquals(4, taskManager.getCountByStatus(Status.NEW)),
+                () -> assertEquals(2, taskManager.getCountByStatus(Subordination.SUBTASK, Status.NEW)),
+                () -> assertEquals(List.of(self), taskManager.getAllByStatus(Subordination.SELF, Status.NEW))
+        );
+
+        sub1.setStatus(Status.DONE);
+        taskManager.update(sub1);
+        self.setStatus(Status.IN_PROGRESS);
+        taskManager.update(self);
+        assertAll(
+                () -> assertEquals(1, taskManager.getCountByStatus(Status.NEW)),
+                () -> assertEquals(2, taskManager.getCountByStatus(Status.IN_PROGRESS)),
+                () -> assertEquals(1, taskManager.getCountByStatus(Subordination.EPIC, Status.IN_PROGRESS)),
+                () -> assertEquals(List.of(taskManager.get(sub1.getId())),
+                        taskManager.getAllByStatus(Subordination.SUBTASK, Status.DONE))
+        );
+
+        taskManager.delete(sub2.getId());
+        assertEquals(List.of(taskManager.get(epic.getId())),
+                taskManager.getAllByStatus(Subordination.EPIC, Status.DONE));
+        taskManager.delete(epic.getId());
+        assertAll(
+                () -> assertEquals(0, taskManager.getCountByStatus(Status.DONE)),
+                () -> assertEquals(1, taskManager.getCountByStatus(Status.IN_PROGRESS)),
+                () -> assertTrue(taskManager.getAllByStatus(Subordination.SUBTASK, Status.DONE).isEmpty())
+        );
+
+        taskManager.clear();
+        assertEquals(0, taskManager.getCountByStatus(Status.IN_PROGRESS));
+    }
+
+    @DisplayName("search by words follows add, update and delete")
+    @Tag("search")
+    @Test
+    void searchTest() {
+        Epictask epic = taskManager.add(new Epictask("Ремонт", "ремонт квартиры", null, null));
+        Subtask sub = taskManager.add(new Subtask("Купить краску", "белая краска для кухни", null, duration,
+                epic.getId()));
+        Selftask self = taskManager.add(new Selftask("Купить хлеб", "в магазине у дома", null, duration));
+        assertAll(
+                () -> assertEquals(List.of(sub, self), taskManager.search("купить", 10)),
+                () -> assertEquals(List.of(sub), taskManager.search("купить краску", 10)),
+                () -> assertEquals(List.of(sub), taskManager.search("купить", 1)),
+                () -> assertTrue(taskManager.search(null, 10).isEmpty())
+        );
+
+        self.setDescription("в пекарне");
+        taskManager.update(self);
+        assertTrue(taskManager.search("магазине", 10).isEmpty());
+        assertEquals(List.of(self), taskManager.search("пекарне", 10));
+
+        taskManager.delete(epic.getId());
+        assertAll(
+                () -> assertTrue(taskManager.search("краску", 10).isEmpty()),
+                () -> assertTrue(taskManager.search("ремонт", 10).isEmpty()),
+                () -> assertEquals(List.of(self), taskManager.search("купить", 10))
+        );
+    }
+
+    @DisplayName("absent name or description is not indexed as a word")
+    @Tag("search")
+    @Test
+    void searchSkipsNullFieldsTest() {
+        Selftask self = taskManager.add(new Selftask("Купить хлеб", null, null, null));
+        Epictask epic = taskManager.add(new Epictask(null, "ремонт квартиры", null, null));
+        assertAll(
+                () -> assertTrue(taskManager.search("null", 10).isEmpty()),
+                () -> assertEquals(List.of(self), taskManager.search("хлеб", 10)),
+                () -> assertEquals(List.of(epic), taskManager.search("ремонт", 10))
+        );
+
+        self.setDescription("null и пустота");
+        taskManager.update(self);
+        assertEquals(List.of(self), taskManager.search("null", 10));
+        taskManager.delete(self.getId());
+        assertTrue(taskManager.search("null", 10).isEmpty());
+    }
+}
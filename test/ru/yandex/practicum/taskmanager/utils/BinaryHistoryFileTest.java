@@ -0,0 +1,120 @@
+package ru.yandex.practicum.taskmanager.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.taskmanager.exceptions.ManagerSaveException;
+import ru.yandex.practicum.taskmanager.tasks.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryHistoryFileTest {
+    Path path = Path.of("src/ru/yandex/practicum/taskmanager/repository/history.bin");
+    Path csv = Path.of("src/ru/yandex/practicum/taskmanager/repository/history_export.csv");
+
+    @BeforeEach
+    void initAndClearBefore() throws IOException {
+        Files.deleteIfExists(path);
+        Files.deleteIfExists(csv);
+    }
+
+    @AfterEach
+    void clearAfter() throws IOException {
+        Files.deleteIfExists(path);
+        Files.deleteIfExists(csv);
+    }
+
+    List<Task> getTasks() {
+        LocalDateTime dateTime = LocalDateTime.of(2024, 4, 1, 13, 20);
+        Task self = new Selftask("сходить за продуктами", "купить сыр, молоко", dateTime, Duration.ofDays(3));
+        self.setId(3);
+        self.setStatus(Status.DONE);
+        Epictask epic = new Epictask("отпуск", null, null, null);
+        epic.setId(1);
+        epic.setStartTime(dateTime);
+        epic.setDuration(Duration.ofHours(5));
+        epic.setStatus(Status.IN_PROGRESS);
+        Task sub = new Subtask("", "билеты", null, null, 1);
+        sub.setId(2);
+        return List.of(self, epic, sub);
+    }
+
+    @DisplayName("write and read tasks")
+    @Test
+    void writeAndReadTest() {
+        List<Task> tasks = getTasks();
+        BinaryHistoryFile.write(path, tasks);
+        List<Task> loaded = new ArrayList<>();
+        BinaryHistoryFile.read(path, loaded::add);
+        assertEquals(tasks, loaded);
+        for (int i = 0; i < tasks.size(); i++) {
+            Task expected = tasks.get(i);
+            Task actual = loaded.get(i);
+            assertAll(
+                    () -> assertEquals(expected.getSubordination(), actual.getSubordination()),
+                    () -> assertEquals(expected.getName(), actual.getName()),
+                    () -> assertEquals(expected.getDescription(), actual.getDescription()),
+                    () -> assertEquals(expected.getStatus(), actual.getStatus()),
+                    () -> assertEquals(expected.getStartTime(), actual.getStartTime()),
+                    () -> assertEquals(expected.getDuration(), actual.getDuration())
+            );
+        }
+        assertEquals(1, ((Subtask) loaded.get(2)).getEpicId());
+    }
+
+    @DisplayName("write and read empty history")
+    @Test
+    void emptyTest() {
+        BinaryHistoryFile.write(path, List.of());
+        List<Task> loaded = new ArrayList<>();
+        BinaryHistoryFile.read(path, loaded::add);
+        assertTrue(loaded.isEmpty());
+    }
+
+    @DisplayName("read file with bad header or truncated records")
+    @Test
+    void corruptedTest() throws IOException {
+        Files.writeString(path, "id,subordination");
+        assertThrows(ManagerSaveException.class, () -> BinaryHistoryFile.read(path, task -> {
+        }));
+        BinaryHistoryFile.write(path, getTasks());
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 3));
+        assertThrows(ManagerSaveException.class, () -> BinaryHistoryFile.read(path, task -> {
+        }));
+    }
+
+    // в CSV-файле не могут храниться запятые в строках и отсутствующие строки
+    @DisplayName("export to CSV and import back")
+    @Test
+    void exportAndImportTest() {
+        Task self = new Selftask("сходить за продуктами", "купить сыр", LocalDateTime.of(2024, 4, 1, 13, 20),
+                Duration.ofDays(3));
+        self.setId(3);
+        Task sub = new Subtask("билеты", "купить билеты", null, null, 1);
+        sub.setId(2);
+        List<Task> tasks = List.of(sub, self);
+        BinaryHistoryFile.write(path, tasks);
+        FileBackedHistoryManager.exportCsv(path, csv);
+        BinaryHistoryFile.write(path, List.of());
+        FileBackedHistoryManager.importCsv(csv, path);
+        List<Task> loaded = new ArrayList<>();
+        BinaryHistoryFile.read(path, loaded::add);
+        assertAll(
+                () -> assertEquals(tasks, loaded),
+                () -> assertEquals("купить билеты", loaded.getFirst().getDescription()),
+                () -> assertEquals(1, ((Subtask) loaded.getFirst()).getEpicId()),
+                () -> assertEquals(self.getStartTime(), loaded.getLast().getStartTime())
+        );
+    }
+}
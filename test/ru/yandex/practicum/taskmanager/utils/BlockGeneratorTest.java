@@ -0,0 +1,128 @@
+package ru.yandex.practicum.taskmanager.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.taskmanager.exceptions.ManagerSaveException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockGeneratorTest {
+    Path path = Path.of("src/ru/yandex/practicum/taskmanager/repository/ids.test");
+
+    @BeforeEach
+    void initAndClearBefore() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @AfterEach
+    void clearAfter() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @DisplayName("ids of one thread go in a row")
+    @Test
+    void serialIdsTest() {
+        Generator generator = new BlockGenerator(1, 4);
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ids.add(generator.getId());
+        }
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), ids);
+    }
+
+    @DisplayName("ids are unique when many threads take them")
+    @Test
+    void uniqueIdsInThreadsTest() throws Exception {
+        Generator generator = new BlockGenerator(1, 16);
+        int threads = 8;
+        int perThread = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Callable<List<Integer>> task = () -> {
+                List<Integer> ids = new ArrayList<>(perThread);
+                for (int i = 0; i < perThread; i++) {
+                    ids.add(generator.getId());
+                }
+                return ids;
+            };
+            List<Future<List<Integer>>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(task));
+            }
+            Set<Integer> ids = new HashSet<>();
+            for (Future<List<Integer>> future : futures) {
+                ids.addAll(future.get());
+            }
+            assertEquals(threads * perThread, ids.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @DisplayName("ids after skipTo are greater than used id, also inside a taken block")
+    @Test
+    void skipToTest() {
+        Generator generator = new BlockGenerator(1, 100);
+        Integer first = generator.getId();
+        generator.skipTo(10);
+        Integer second = generator.getId();
+        generator.skipTo(5);
+        Integer third = generator.getId();
+        assertAll(
+                () -> assertEquals(1, first),
+                () -> assertTrue(second > 10),
+                () -> assertTrue(third > second)
+        );
+    }
+
+    @DisplayName("ids are not repeated after restart")
+    @Test
+    void highWaterMarkTest() {
+        Generator generator = new BlockGenerator(1, 4, path);
+        int last = 0;
+        for (int i = 0; i < 1000; i++) {
+            last = generator.getId();
+        }
+        Generator restarted = new BlockGenerator(1, 4, path);
+        int lastBefore = last;
+        Integer next = restarted.getId();
+        assertAll(
+                () -> assertTrue(Files.exists(path)),
+                () -> assertTrue(next > lastBefore)
+        );
+    }
+
+    @DisplayName("corrupted high-water mark file")
+    @Test
+    void corruptedHighWaterMarkTest() throws IOException {
+        Files.writeString(path, "not a number");
+        assertThrows(ManagerSaveException.class, () -> new BlockGenerator(1, 4, path));
+    }
+
+    @DisplayName("serial generators do not share the counter")
+    @Test
+    void serialGeneratorsAreIndependentTest() {
+        Generator first = new SerialGenerator(1);
+        first.getId();
+        first.getId();
+        Generator second = new SerialGenerator(1);
+        assertAll(
+                () -> assertEquals(1, second.getId()),
+                () -> assertEquals(3, first.getId())
+        );
+    }
+}
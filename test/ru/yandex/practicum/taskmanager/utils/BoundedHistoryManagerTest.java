@@ -0,0 +1,119 @@
+package ru.yandex.practicum.taskmanager.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.taskmanager.tasks.Selftask;
+import ru.yandex.practicum.taskmanager.tasks.Task;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedHistoryManagerTest {
+    List<Task> tasks;
+    ManualClock clock;
+
+    // часы, которые идут только по команде теста
+    static class ManualClock extends Clock {
+        Instant now = Instant.parse("2024-04-01T13:20:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    @BeforeEach
+    void initTasks() {
+        tasks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Task task = new Selftask("name " + i, "descr " + i, null, null);
+            task.setId(i);
+            tasks.add(task);
+        }
+        clock = new ManualClock();
+    }
+
+    @DisplayName("evict least recently viewed task")
+    @Tag("add")
+    @Test
+    void evictTest() {
+        BoundedHistoryManager history = new BoundedHistoryManager(3);
+        history.add(tasks.get(0));
+        history.add(tasks.get(1));
+        history.add(tasks.get(2));
+        history.add(tasks.get(0));
+        history.add(tasks.get(3));
+        history.add(tasks.get(4));
+        assertAll(
+                () -> assertEquals(3, history.size()),
+                () -> assertEquals(List.of(tasks.get(4), tasks.get(3), tasks.get(0)), history.getHistory())
+        );
+    }
+
+    @DisplayName("drop tasks not viewed for longer than time to live")
+    @Tag("remove")
+    @Test
+    void expireTest() {
+        BoundedHistoryManager history = new BoundedHistoryManager(5, Duration.ofMinutes(10), clock);
+        history.add(tasks.get(0));
+        history.add(tasks.get(1));
+        clock.advance(Duration.ofMinutes(6));
+        history.add(tasks.get(2));
+        history.add(tasks.get(0));
+        clock.advance(Duration.ofMinutes(6));
+        List<Task> afterFirst = history.getHistory();
+        clock.advance(Duration.ofMinutes(6));
+        assertAll(
+                () -> assertEquals(List.of(tasks.get(0), tasks.get(2)), afterFirst),
+                () -> assertTrue(history.getHistory().isEmpty()),
+                () -> assertEquals(0, history.size())
+        );
+    }
+
+    @DisplayName("get last entries of history")
+    @Tag("get")
+    @Test
+    void getHistoryLimitTest() {
+        BoundedHistoryManager history = new BoundedHistoryManager(5, Duration.ofMinutes(10), clock);
+        tasks.forEach(history::add);
+        history.remove(8);
+        assertAll(
+                () -> assertEquals(List.of(tasks.get(9), tasks.get(7)), history.getHistory(2)),
+                () -> assertEquals(4, history.getHistory(100).size()),
+                () -> assertTrue(history.getHistory(0).isEmpty())
+        );
+        history.clear();
+        history.add(tasks.get(1));
+        assertEquals(List.of(tasks.get(1)), history.getHistory(3));
+    }
+
+    @DisplayName("reject non-positive capacity")
+    @Tag("instance")
+    @Test
+    void badCapacityTest() {
+        assertThrows(IllegalArgumentException.class, () -> new BoundedHistoryManager(0));
+    }
+}
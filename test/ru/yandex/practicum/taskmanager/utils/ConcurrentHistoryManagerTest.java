@@ -0,0 +1,104 @@
+package ru.yandex.practicum.taskmanager.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.taskmanager.tasks.Selftask;
+import ru.yandex.practicum.taskmanager.tasks.Task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentHistoryManagerTest {
+    static Task task(int id) {
+        Task task = new Selftask("name " + id, "descr " + id, null, null);
+        task.setId(id);
+        return task;
+    }
+
+    @DisplayName("keep order of views of one thread")
+    @Tag("add")
+    @Test
+    void orderTest() {
+        ConcurrentHistoryManager history = new ConcurrentHistoryManager(new LinkedHashHistoryManager());
+        LinkedHashHistoryManager expected = new LinkedHashHistoryManager();
+        int[] ids = {1, 2, 3, 1, 4, 2, 5};
+        for (int id : ids) {
+            history.add(task(id));
+            expected.add(task(id));
+        }
+        history.remove(4);
+        expected.remove(4);
+        history.add(null);
+        assertAll(
+                () -> assertEquals(expected.getHistory(), history.getHistory()),
+                () -> assertEquals(expected.getHistory(2), history.getHistory(2))
+        );
+        history.add(task(7));
+        history.clear();
+        assertTrue(history.getHistory().isEmpty());
+    }
+
+    @DisplayName("drain full buffer without background drain")
+    @Tag("add")
+    @Test
+    void fullBufferTest() {
+        ConcurrentHistoryManager history = new ConcurrentHistoryManager(new LinkedHashHistoryManager(),
+                runnable -> {
+                });
+        for (int i = 0; i < 1000; i++) {
+            history.add(task(i % 300));
+        }
+        List<Task> tasks = history.getHistory();
+        assertAll(
+                () -> assertEquals(300, tasks.size()),
+                () -> assertEquals(999 % 300, tasks.getFirst().getId()),
+                () -> assertEquals(1000 % 300, tasks.getLast().getId())
+        );
+    }
+
+    @DisplayName("record views from many threads")
+    @Tag("add")
+    @Test
+    void manyThreadsTest() throws InterruptedException {
+        ConcurrentHistoryManager history = new ConcurrentHistoryManager(new LinkedHashHistoryManager());
+        int threadsNumber = 8;
+        int viewsNumber = 5000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadsNumber; t++) {
+            int base = t * viewsNumber;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < viewsNumber; i++) {
+                    history.add(task(base + i));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        List<Task> tasks = history.getHistory();
+        assertEquals(threadsNumber * viewsNumber, new HashSet<>(tasks).size());
+        // просмотры каждого потока идут в истории от последнего к первому
+        int[] lastSeen = new int[threadsNumber];
+        Arrays.fill(lastSeen, Integer.MAX_VALUE);
+        for (Task task : tasks) {
+            int thread = task.getId() / viewsNumber;
+            assertTrue(task.getId() < lastSeen[thread]);
+            lastSeen[thread] = task.getId();
+        }
+    }
+}
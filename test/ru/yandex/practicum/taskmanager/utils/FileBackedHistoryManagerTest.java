@@ -3,37 +3,46 @@ package ru.yandex.practicum.taskmanager.utils;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 import ru.yandex.practicum.taskmanager.exceptions.ManagerSaveException;
 import ru.yandex.practicum.taskmanager.tasks.*;
 
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.nio.file.StandardOpenOption.CREATE;
 import static org.junit.jupiter.api.Assertions.*;
 
 class FileBackedHistoryManagerTest {
     Path path = Path.of("src/ru/yandex/practicum/taskmanager/repository/history.csv");
+    Path journal = Path.of("src/ru/yandex/practicum/taskmanager/repository/history.csv.journal");
     String[] FIELDS = Task.FIELDS_NAMES;
     private static final String DELIMITER = ",";
 
     String HEADER = String.join(DELIMITER, FIELDS).concat("\n");
+    static final AtomicInteger loadedRecords = new AtomicInteger();
 
     @BeforeEach
     void initAndClearBefore() throws IOException {
         Files.deleteIfExists(path);
+        Files.deleteIfExists(journal);
     }
 
     @AfterEach
     void clearAfter() throws IOException {
         Files.deleteIfExists(path);
+        Files.deleteIfExists(journal);
     }
 
 
@@ -79,6 +88,7 @@ class FileBackedHistoryManagerTest {
         FileBackedHistoryManager historyManager = new FileBackedHistoryManager(path, false);
         assertTrue(Files.isRegularFile(path));
         String answer = fillInHistoryManagerBySelftasks(historyManager);
+        historyManager.compact();
         try (BufferedReader reader = Files.newBufferedReader(path)) {
             String fileData = Files.readString(path);
             assertEquals(answer, fileData);
@@ -116,6 +126,7 @@ class FileBackedHistoryManagerTest {
         FileBackedHistoryManager historyManager = new FileBackedHistoryManager(path, false);
         assertTrue(Files.isRegularFile(path));
         String answer = fillInHistoryManagerByEpictasks(historyManager);
+        historyManager.compact();
         try (BufferedReader reader = Files.newBufferedReader(path)) {
             String fileData = Files.readString(path);
             assertEquals(answer, fileData);
@@ -147,6 +158,7 @@ class FileBackedHistoryManagerTest {
         FileBackedHistoryManager historyManager = new FileBackedHistoryManager(path, false);
         assertTrue(Files.isRegularFile(path));
         String answer = fillInHistoryManagerBySubtasks(historyManager);
+        historyManager.compact();
         try (BufferedReader reader = Files.newBufferedReader(path)) {
             String fileData = Files.readString(path);
             assertEquals(answer, fileData);
@@ -183,6 +195,7 @@ class FileBackedHistoryManagerTest {
         FileBackedHistoryManager historyManager = new FileBackedHistoryManager(path, false);
         assertTrue(Files.isRegularFile(path));
         String answer = fillInHistoryManagerBySameTasks(historyManager);
+        historyManager.compact();
         try (BufferedReader reader = Files.newBufferedReader(path)) {
             String fileData = Files.readString(path);
             assertEquals(answer, fileData);
@@ -303,4 +316,231 @@ class FileBackedHistoryManagerTest {
         Files.writeString(path, fileContent, CREATE);
         assertThrows(ManagerSaveException.class, () -> new FileBackedHistoryManager(path, true));
     }
-}
\ No newline at end of file
+
+    @DisplayName("append events to journal without rewriting file")
+    @Test
+    void appendToJournalTest() throws IOException {
+        FileBackedHistoryManager historyManager = new FileBackedHistoryManager(path, false);
+        fillInHistoryManagerBySameTasks(historyManager);
+        historyManager.remove(4);
+        historyManager.remove(100);
+        List<String> events = Files.readAllLines(journal);
+        assertAll(
+                () -> assertEquals(HEADER, Files.readString(path)),
+                () -> assertEquals(9, events.size()),
+                () -> assertEquals("TOUCH,3,SUBTASK,name3,NEW,desc3,19814,48000,259200,3", events.get(7)),
+                () -> assertEquals("REMOVE,4", events.get(8))
+        );
+    }
+
+    @DisplayName("load file and journal")
+    @Test
+    void loadJournalTest() throws IOException {
+        FileBackedHistoryManager historyManager = new FileBackedHistoryManager(path, false);
+        fillInHistoryManagerBySelftasks(historyManager);
+        historyManager.compact();
+        fillInHistoryManagerBySameTasks(historyManager);
+        historyManager.remove(4);
+        List<Task> history = historyManager.getHistory();
+        FileBackedHistoryManager loaded = new FileBackedHistoryManager(path, true);
+        assertAll(
+                () -> assertEquals(history, loaded.getHistory()),
+                () -> assertEquals("name1", loaded.getHistory().get(1).getName()),
+                () -> assertEquals(Subordination.SUBTASK, loaded.getHistory().get(1).getSubordination())
+        );
+    }
+
+    @DisplayName("load journal after clear")
+    @Test
+    void loadJournalAfterClearTest() {
+        FileBackedHistoryManager historyManager = new FileBackedHistoryManager(path, false);
+        fillInHistoryManagerBySelftasks(historyManager);
+        historyManager.compact();
+        historyManager.clear();
+        fillInHistoryManagerByEpictasks(historyManager);
+        List<Task> history = historyManager.getHistory();
+        FileBackedHistoryManager loaded = new FileBackedHistoryManager(path, true);
+        assertAll(
+                () -> assertEquals(history, loaded.getHistory()),
+                () -> assertEquals(Subordination.EPIC, loaded.getHistory().getFirst().getSubordination())
+        );
+    }
+
+    @DisplayName("ignore torn last line of journal")
+    @Test
+    void loadTornJournalTest() throws IOException {
+        FileBackedHistoryManager historyManager = new FileBackedHistoryManager(path, false);
+        fillInHistoryManagerBySelftasks(historyManager);
+        Files.writeString(journal, "TOUCH,7,SELF,na", StandardOpenOption.APPEND);
+        FileBackedHistoryManager loaded = new FileBackedHistoryManager(path, true);
+        assertEquals(historyManager.getHistory(), loaded.getHistory());
+    }
+
+    @DisplayName("compact journal when it grows")
+    @Test
+    void compactJournalTest() throws IOException {
+        FileBackedHistoryManager historyManager = new FileBackedHistoryManager(path, false);
+        for (int i = 0; i < 2500; i++) {
+            Task task = new Selftask("name" + i, "desc" + i, null, null);
+            task.setId(i % 10);
+            historyManager.add(task);
+        }
+        List<Task> history = historyManager.getHistory();
+        FileBackedHistoryManager loaded = new FileBackedHistoryManager(path, true);
+        assertAll(
+                () -> assertTrue(Files.readAllLines(journal).size() < 1000),
+                () -> assertEquals(11, Files.readAllLines(path).size()),
+                () -> assertEquals(history, loaded.getHistory()),
+                () -> assertEquals("name2499", loaded.getHistory().getFirst().getName())
+        );
+    }
+
+    @DisplayName("write journal in background with interval policy")
+    @Test
+    void intervalPolicyTest() throws IOException {
+        FileBackedHistoryManager historyManager = new FileBackedHistoryManager(path, false,
+                DurabilityPolicy.INTERVAL, Duration.ofMillis(5));
+        fillInHistoryManagerBySelftasks(historyManager);
+        historyManager.compact();
+        fillInHistoryManagerBySameTasks(historyManager);
+        historyManager.flush();
+        List<String> events = Files.readAllLines(journal);
+        List<Task> history = historyManager.getHistory();
+        historyManager.close();
+        FileBackedHistoryManager loaded = new FileBackedHistoryManager(path, true);
+        assertAll(
+                () -> assertEquals(4, Files.readAllLines(path).size()),
+                () -> assertEquals(8, events.size()),
+                () -> assertEquals(history, loaded.getHistory())
+        );
+    }
+
+    @DisplayName("write journal on close with on-shutdown policy")
+    @Test
+    void onShutdownPolicyTest() throws IOException {
+        FileBackedHistoryManager historyManager = new FileBackedHistoryManager(path, false,
+                DurabilityPolicy.ON_SHUTDOWN, Duration.ZERO);
+        String answer = fillInHistoryManagerBySubtasks(historyManager);
+        historyManager.remove(2);
+        long sizeBeforeClose = Files.size(journal);
+        List<Task> history = historyManager.getHistory();
+        historyManager.close();
+        List<String> events = Files.readAllLines(journal);
+        FileBackedHistoryManager loaded = new FileBackedHistoryManager(path, true);
+        loaded.compact();
+        assertAll(
+                () -> assertEquals(0, sizeBeforeClose),
+                () -> assertEquals(4, events.size()),
+                () -> assertEquals(history, loaded.getHistory()),
+                () -> assertEquals(answer.replace("2,SUBTASK,name2,NEW,desc2,-718765,7320,172800,2\n", ""),
+                        Files.readString(path))
+        );
+    }
+
+    @DisplayName("load single pass keeps file order")
+    @Test
+    void loadOrderTest() throws IOException {
+        FileBackedHistoryManager historyManager = new FileBackedHistoryManager(path, false);
+        fillInHistoryManagerBySameTasks(historyManager);
+        historyManager.compact();
+        List<Task> history = historyManager.getHistory();
+        FileBackedHistoryManager loaded = new FileBackedHistoryManager(path, true);
+        loaded.add(history.getLast());
+        Task task = new Selftask("name", "desc", null, null);
+        task.setId(100);
+        loaded.add(task);
+        loaded.remove(3);
+        List<Task> expected = new ArrayList<>(history);
+        expected.remove(history.getLast());
+        expected.addFirst(history.getLast());
+        expected.addFirst(task);
+        expected.removeIf(t -> t.getId() == 3);
+        assertEquals(expected, loaded.getHistory());
+    }
+
+    @DisplayName("each record of the file is read and added to history once")
+    @Test
+    void loadReadsEachRecordOnceTest() throws IOException {
+        int records = 10_000;
+        writeRecords(records);
+        loadedRecords.set(0);
+        FileBackedHistoryManager historyManager = new FileBackedHistoryManager(path, true) {
+            @Override
+            protected void addLast(Task item) {
+                loadedRecords.incrementAndGet();
+                super.addLast(item);
+            }
+        };
+        List<Task> history = historyManager.getHistory();
+        historyManager.close();
+        assertAll(
+                () -> assertEquals(records, loadedRecords.get()),
+                () -> assertEquals(records, history.size()),
+                () -> assertEquals(records, history.stream().map(Task::getId).distinct().count())
+        );
+    }
+
+    // Время загрузки файла в 4 раза большего размера должно расти примерно в 4 раза:
+    // при квадратичной загрузке оно выросло бы в 16 раз.
+    // Замер зависит от загрузки машины, поэтому запускается только с -Dbenchmark=true
+    @DisplayName("load time grows linearly with file size")
+    @Tag("benchmark")
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @Test
+    void loadScalesLinearlyTest() throws IOException {
+        long small = measureLoad(25_000);
+        long large = measureLoad(100_000);
+        assertTrue(large < 10 * small, String.format("25000 records: %d ms, 100000 records: %d ms",
+                small / 1_000_000, large / 1_000_000));
+    }
+
+    void writeRecords(int records) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write(HEADER);
+            for (int i = records; i > 0; i--) {
+                writer.write(i + ",SUBTASK,name" + i + ",NEW,desc" + i + ",19814,48000,259200," + (i + 1) + "\n");
+            }
+        }
+        Files.deleteIfExists(journal);
+    }
+
+    long measureLoad(int records) throws IOException {
+        writeRecords(records);
+        long best = Long.MAX_VALUE;
+        for (int attempt = 0; attempt < 3; attempt++) {
+            long start = System.nanoTime();
+            FileBackedHistoryManager historyManager = new FileBackedHistoryManager(path, true);
+            best = Math.min(best, System.nanoTime() - start);
+            assertEquals(records, historyManager.size());
+            historyManager.close();
+        }
+        return best;
+    }
+
+    @DisplayName("compact to binary file and load it")
+    @Test
+    void binaryFormatTest() throws IOException {
+        Path binary = Path.of("src/ru/yandex/practicum/taskmanager/repository/history_test.bin");
+        Path binaryJournal = Path.of("src/ru/yandex/practicum/taskmanager/repository/history_test.bin.journal");
+        try {
+            FileBackedHistoryManager historyManager = new FileBackedHistoryManager(binary, false,
+                    HistoryFileFormat.BINARY, DurabilityPolicy.EVERY_WRITE, Duration.ZERO);
+            fillInHistoryManagerBySameTasks(historyManager);
+            historyManager.compact();
+            historyManager.remove(5);
+            List<Task> history = historyManager.getHistory();
+            historyManager.close();
+            FileBackedHistoryManager loaded = new FileBackedHistoryManager(binary, true,
+                    HistoryFileFormat.BINARY, DurabilityPolicy.EVERY_WRITE, Duration.ZERO);
+            assertAll(
+                    () -> assertEquals(1, Files.readAllLines(binaryJournal).size()),
+                    () -> assertEquals(history, loaded.getHistory()),
+                    () -> assertEquals("desc3", loaded.getHistory().getFirst().getDescription())
+            );
+            loaded.close();
+        } finally {
+            Files.deleteIfExists(binary);
+            Files.deleteIfExists(binaryJournal);
+        }
+    }
+}
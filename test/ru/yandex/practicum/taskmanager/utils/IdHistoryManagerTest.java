@@ -0,0 +1,90 @@
+package ru.yandex.practicum.taskmanager.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.taskmanager.service.Managers;
+import ru.yandex.practicum.taskmanager.service.TaskManager;
+import ru.yandex.practicum.taskmanager.tasks.Selftask;
+import ru.yandex.practicum.taskmanager.tasks.Task;
+
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdHistoryManagerTest {
+    HashMap<Integer, Task> tasks;
+    IdHistoryManager history;
+
+    @BeforeEach
+    void initHistory() {
+        tasks = new HashMap<>();
+        for (int i = 0; i < 5; i++) {
+            Task task = new Selftask("name " + i, "descr " + i, null, null);
+            task.setId(i);
+            tasks.put(i, task);
+        }
+        history = new IdHistoryManager(tasks::get);
+    }
+
+    @DisplayName("keep order of views")
+    @Tag("add")
+    @Test
+    void orderTest() {
+        history.add(tasks.get(0));
+        history.add(tasks.get(1));
+        history.add(tasks.get(2));
+        history.add(tasks.get(0));
+        history.add(null);
+        history.remove(1);
+        assertAll(
+                () -> assertEquals(List.of(tasks.get(0), tasks.get(2)), history.getHistory()),
+                () -> assertEquals(List.of(tasks.get(0)), history.getHistory(1))
+        );
+        history.clear();
+        assertTrue(history.getHistory().isEmpty());
+    }
+
+    @DisplayName("show current state and drop deleted tasks")
+    @Tag("get")
+    @Test
+    void resolveTest() {
+        for (int i = 0; i < 5; i++) {
+            history.add(tasks.get(i));
+        }
+        Task updated = new Selftask("new name", "new descr", null, null);
+        updated.setId(4);
+        tasks.put(4, updated);
+        tasks.remove(3);
+        tasks.remove(2);
+        List<Task> last = history.getHistory(2);
+        assertAll(
+                () -> assertEquals(List.of(4, 1), last.stream().map(Task::getId).toList()),
+                () -> assertEquals("new name", last.getFirst().getName()),
+                () -> assertEquals(3, history.size()),
+                () -> assertEquals(3, history.getHistory().size())
+        );
+    }
+
+    @DisplayName("task manager history follows updates and deletes")
+    @Tag("get")
+    @Test
+    void taskManagerTest() {
+        TaskManager taskManager = Managers.getWithIdHistory();
+        Selftask first = taskManager.add(new Selftask("first", "", null, null));
+        Selftask second = taskManager.add(new Selftask("second", "", null, null));
+        taskManager.getSelftask(first.getId());
+        taskManager.getSelftask(second.getId());
+        Selftask renamed = new Selftask("renamed", "", null, null);
+        renamed.setId(first.getId());
+        taskManager.update(renamed);
+        taskManager.delete(second.getId());
+        List<Task> taskHistory = taskManager.getHistory();
+        assertAll(
+                () -> assertEquals(1, taskHistory.size()),
+                () -> assertEquals("renamed", taskHistory.getFirst().getName())
+        );
+    }
+}
@@ -169,5 +169,21 @@ class LinkedHashHistoryManagerTest {
         }
         assertEquals(0, history.getHistory().size());
     }
-}
 
+    @DisplayName("add tasks to the end after moving and deleting the last one")
+    @Tag("add")
+    @Test
+    void addToEndTest() {
+        history.addLast(tasks.get(0));
+        history.addLast(tasks.get(1));
+        history.addLast(tasks.get(0));
+        history.add(tasks.get(1));
+        history.addLast(tasks.get(2));
+        history.remove(2);
+        history.addLast(tasks.get(3));
+        assertArrayEquals(new Task[]{tasks.get(1), tasks.get(0), tasks.get(3)}, history.getHistory().toArray());
+        history.clear();
+        history.addLast(tasks.get(2));
+        assertEquals(List.of(tasks.get(2)), history.getHistory());
+    }
+}
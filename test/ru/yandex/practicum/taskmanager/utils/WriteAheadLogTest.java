@@ -0,0 +1,83 @@
+package ru.yandex.practicum.taskmanager.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.taskmanager.exceptions.ManagerSaveException;
+import ru.yandex.practicum.taskmanager.tasks.Selftask;
+import ru.yandex.practicum.taskmanager.tasks.Task;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteAheadLogTest {
+    Path path = Path.of("src/ru/yandex/practicum/taskmanager/repository/wal_test.log");
+    Path directory = Path.of("src/ru/yandex/practicum/taskmanager/repository/wal_test");
+    Path segment = directory.resolve("wal_test.log.1");
+
+    @BeforeEach
+    void initAndClearBefore() throws IOException {
+        clearAfter();
+    }
+
+    @AfterEach
+    void clearAfter() throws IOException {
+        Files.deleteIfExists(path);
+        Files.deleteIfExists(segment);
+        Files.deleteIfExists(directory);
+    }
+
+    Task task(int id) {
+        Task task = new Selftask("задача" + id, "описание", null, null);
+        task.setId(id);
+        return task;
+    }
+
+    List<Integer> replayIds(Path file) {
+        List<Integer> ids = new ArrayList<>();
+        WriteAheadLog.replay(file, new WriteAheadLog.Listener() {
+            @Override
+            public void put(Task task) {
+                ids.add(task.getId());
+            }
+
+            @Override
+            public void delete(Integer id) {
+            }
+
+            @Override
+            public void clear() {
+            }
+        });
+        return ids;
+    }
+
+    @DisplayName("records are kept and written once after a failed flush")
+    @Test
+    void retryAfterFailedFlushTest() throws IOException {
+        try (WriteAheadLog log = WriteAheadLog.open(path, Duration.ofHours(1))) {
+            log.put(task(1));
+            log.put(task(2));
+            log.rotate(segment);
+            log.put(task(3));
+            assertThrows(ManagerSaveException.class, log::flush);
+            assertThrows(ManagerSaveException.class, () -> log.put(task(4)));
+
+            Files.createDirectories(directory);
+            log.flush();
+            log.put(task(5));
+            log.flush();
+            assertAll(
+                    () -> assertEquals(List.of(1, 2), replayIds(segment)),
+                    () -> assertEquals(List.of(3, 5), replayIds(path))
+            );
+        }
+    }
+}